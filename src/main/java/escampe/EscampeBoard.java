@@ -33,27 +33,86 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
     public static final int PALADIN_NOIR = -1;
     public static final int LICORNE_NOIRE = -2;
 
-    private int[][] posPieces;
+    // Joueur au trait (codé en entier plutôt qu'en String)
+    static final int TRAIT_BLANC = EscampeRole.INDEX_BLANC;
+    static final int TRAIT_NOIR = EscampeRole.INDEX_NOIR;
+
+    /** Masques 36 bits des cases de chaque liseré (indice 1, 2 ou 3 ; l'indice 0 est inutilisé).
+     * La case (x, y) correspond au bit y * 6 + x.
+     */
+    private static final long[] MASQUES_LISERE = new long[4];
+
+    /** Liseré de chaque case, indexé par y * 6 + x. */
+    private static final int[] LISERE_CASE = new int[36];
+
+    static {
+        for (int y = 0; y < 6; y++) {
+            for (int x = 0; x < 6; x++) {
+                MASQUES_LISERE[LISERES[y][x]] |= 1L << (y * 6 + x);
+                LISERE_CASE[y * 6 + x] = LISERES[y][x];
+            }
+        }
+    }
+
+    // --- CLÉS DE ZOBRIST ---
+    /* Nombres aléatoires (graine fixe, donc clés identiques d'une exécution à l'autre) :
+     * ZOBRIST_PIECES[piece + 2][sq] pour chaque pièce sur chaque case (la ligne VIDE reste à 0),
+     * ZOBRIST_LISERE[l] pour le liseré imposé (0 pour aucun), ZOBRIST_TRAIT quand noir a le trait.
+     */
+    private static final long[][] ZOBRIST_PIECES = new long[5][36];
+    private static final long[] ZOBRIST_LISERE = new long[4];
+    private static final long ZOBRIST_TRAIT;
+
+    static {
+        Random rnd = new Random(0x45534341L);
+        for (int piece = LICORNE_NOIRE; piece <= LICORNE_BLANCHE; piece++) {
+            if (piece == VIDE) continue;
+            for (int sq = 0; sq < 36; sq++) {
+                ZOBRIST_PIECES[piece + 2][sq] = rnd.nextLong();
+            }
+        }
+        for (int l = 1; l <= 3; l++) {
+            ZOBRIST_LISERE[l] = rnd.nextLong();
+        }
+        ZOBRIST_TRAIT = rnd.nextLong();
+    }
+
+    // --- ÉTAT DU PLATEAU (bitboards) ---
+    private long paladinsBlancs;
+    private long paladinsNoirs;
+    private long licorneBlanche;
+    private long licorneNoire;
+
     private int lisereCourant;
+    private int joueurCourant;
+
+    // Case de chaque licorne (-1 si absente) et fin de partie, tenues à jour à chaque coup
+    private int caseLicorneBlanche = -1;
+    private int caseLicorneNoire = -1;
+    private boolean partieFinie = true;
 
-    private String joueurCourant;
+    // Clé de Zobrist de la position, tenue à jour à chaque modification
+    private long hash;
 
     // --- CONSTRUCTEUR ---
     public EscampeBoard() {
-        this.posPieces = new int[6][6];
         this.lisereCourant = 0;
-        this.joueurCourant = "blanc";
+        this.joueurCourant = TRAIT_BLANC;
     }
 
     //Constructeur de copie pour l'IA
-    // pour simuler des coups sans modifier le plateau original
+    // pour simuler des coups sans modifier le plateau original (simple copie de champs)
     public EscampeBoard(EscampeBoard autre) {
-        this.posPieces = new int[6][6];
-        for (int y = 0; y < 6; y++) {
-            System.arraycopy(autre.posPieces[y], 0, this.posPieces[y], 0, 6);
-        }
+        this.paladinsBlancs = autre.paladinsBlancs;
+        this.paladinsNoirs = autre.paladinsNoirs;
+        this.licorneBlanche = autre.licorneBlanche;
+        this.licorneNoire = autre.licorneNoire;
         this.lisereCourant = autre.lisereCourant;
         this.joueurCourant = autre.joueurCourant;
+        this.hash = autre.hash;
+        this.caseLicorneBlanche = autre.caseLicorneBlanche;
+        this.caseLicorneNoire = autre.caseLicorneNoire;
+        this.partieFinie = autre.partieFinie;
     }
 
     // --- GETTER ---
@@ -62,13 +121,153 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
     }
 
     public int getPiece(int x, int y) {
-        return isValidCoordinate(x, y) ? posPieces[y][x] : 0;
+        return isValidCoordinate(x, y) ? pieceAt(y * 6 + x) : 0;
     }
 
     public boolean isValidCoordinate(int x, int y) {
         return x >= 0 && x < 6 && y >= 0 && y < 6;
     }
 
+    /** Case (y * 6 + x) de la licorne du joueur donné, -1 si elle a été prise. */
+    public int getCaseLicorne(boolean blanche) {
+        return blanche ? caseLicorneBlanche : caseLicorneNoire;
+    }
+
+    /** Clé de Zobrist 64 bits de la position : pièces sur chaque case, joueur au trait et
+     * liseré imposé (deux positions identiques avec un liseré différent ont des clés différentes).
+     */
+    @Override
+    public long getHash() {
+        return hash;
+    }
+
+    @Override
+    public boolean supportsHash() {
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EscampeBoard that = (EscampeBoard) o;
+        return hash == that.hash
+                && paladinsBlancs == that.paladinsBlancs && paladinsNoirs == that.paladinsNoirs
+                && licorneBlanche == that.licorneBlanche && licorneNoire == that.licorneNoire
+                && lisereCourant == that.lisereCourant && joueurCourant == that.joueurCourant;
+    }
+
+    // --- ACCÈS BITBOARDS ---
+
+    /** Renvoie la pièce présente sur la case d'indice sq (y * 6 + x). */
+    private int pieceAt(int sq) {
+        long b = 1L << sq;
+        if ((paladinsBlancs & b) != 0) return PALADIN_BLANC;
+        if ((paladinsNoirs & b) != 0) return PALADIN_NOIR;
+        if ((licorneBlanche & b) != 0) return LICORNE_BLANCHE;
+        if ((licorneNoire & b) != 0) return LICORNE_NOIRE;
+        return VIDE;
+    }
+
+    /** Pose une pièce (ou VIDE) sur la case d'indice sq en écrasant l'ancien contenu. */
+    private void setPiece(int sq, int piece) {
+        hash ^= ZOBRIST_PIECES[pieceAt(sq) + 2][sq] ^ ZOBRIST_PIECES[piece + 2][sq];
+        long b = 1L << sq;
+        paladinsBlancs &= ~b;
+        paladinsNoirs &= ~b;
+        licorneBlanche &= ~b;
+        licorneNoire &= ~b;
+        switch (piece) {
+            case PALADIN_BLANC:
+                paladinsBlancs |= b;
+                break;
+            case PALADIN_NOIR:
+                paladinsNoirs |= b;
+                break;
+            case LICORNE_BLANCHE:
+                licorneBlanche |= b;
+                break;
+            case LICORNE_NOIRE:
+                licorneNoire |= b;
+                break;
+            default:
+                break;
+        }
+        majLicornes();
+    }
+
+    /** Recalcule la case des licornes et la fin de partie à partir des bitboards
+     * (modifications hors coups : chargement, annulation d'une prise ou d'un placement).
+     */
+    private void majLicornes() {
+        caseLicorneBlanche = licorneBlanche == 0 ? -1 : Long.numberOfTrailingZeros(licorneBlanche);
+        caseLicorneNoire = licorneNoire == 0 ? -1 : Long.numberOfTrailingZeros(licorneNoire);
+        partieFinie = caseLicorneBlanche < 0 || caseLicorneNoire < 0;
+    }
+
+    /** Change le liseré imposé en tenant la clé de Zobrist à jour. */
+    void setLisereCourant(int lisere) {
+        hash ^= ZOBRIST_LISERE[lisereCourant] ^ ZOBRIST_LISERE[lisere];
+        this.lisereCourant = lisere;
+    }
+
+    /** Change le joueur au trait en tenant la clé de Zobrist à jour. */
+    void setJoueurCourant(int joueur) {
+        if (joueur != joueurCourant) hash ^= ZOBRIST_TRAIT;
+        this.joueurCourant = joueur;
+    }
+
+    /** Somme (xor) des clés de Zobrist d'une pièce sur toutes les cases d'un masque. */
+    private static long zobrist(int piece, long cases) {
+        long h = 0L;
+        while (cases != 0) {
+            h ^= ZOBRIST_PIECES[piece + 2][Long.numberOfTrailingZeros(cases)];
+            cases &= cases - 1;
+        }
+        return h;
+    }
+
+    /** Masque de toutes les cases occupées. */
+    private long occupation() {
+        return paladinsBlancs | paladinsNoirs | licorneBlanche | licorneNoire;
+    }
+
+    // --- ACCÈS POUR LA TABLE DE FINALES (EscampeTablebase) ---
+
+    /** Masque des paladins du joueur donné. */
+    long getPaladins(boolean blancs) {
+        return blancs ? paladinsBlancs : paladinsNoirs;
+    }
+
+    /** Masque (une case, ou 0) de la licorne du joueur donné. */
+    long getLicorne(boolean blanche) {
+        return blanche ? licorneBlanche : licorneNoire;
+    }
+
+    int getLisereCourant() {
+        return lisereCourant;
+    }
+
+    /** Remplace toute la position (pièces, trait et liseré imposé), clé de Zobrist comprise. */
+    void setPosition(long paladinsBlancs, long licorneBlanche, long paladinsNoirs, long licorneNoire,
+                     boolean traitBlanc, int lisere) {
+        this.paladinsBlancs = paladinsBlancs;
+        this.licorneBlanche = licorneBlanche;
+        this.paladinsNoirs = paladinsNoirs;
+        this.licorneNoire = licorneNoire;
+        this.lisereCourant = lisere;
+        this.joueurCourant = traitBlanc ? TRAIT_BLANC : TRAIT_NOIR;
+        majLicornes();
+        this.hash = zobrist(PALADIN_BLANC, paladinsBlancs) ^ zobrist(LICORNE_BLANCHE, licorneBlanche)
+                ^ zobrist(PALADIN_NOIR, paladinsNoirs) ^ zobrist(LICORNE_NOIRE, licorneNoire)
+                ^ ZOBRIST_LISERE[lisere] ^ (traitBlanc ? 0L : ZOBRIST_TRAIT);
+    }
+
     // --- CONVERSIONS & I/O ---
     /** Convertit une pièce en caractère pour l'affichage/sauvegarde.
      * exemple: on passe de l'entier 2 (LICORNE_BLANCHE) au caractère 'B'.
@@ -136,7 +335,7 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
                         int rowNum = Integer.parseInt(parts[0]);
                         int y = 6 - rowNum;
                         for (int x = 0; x < 6; x++) {
-                            this.posPieces[y][x] = charToPiece(parts[1].charAt(x));
+                            setPiece(y * 6 + x, charToPiece(parts[1].charAt(x)));
                         }
                     }
                 }
@@ -158,7 +357,7 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
                 int rowNum = 6 - y;
                 String numStr = String.format("%02d", rowNum);
                 bw.write(numStr + " ");
-                for (int x = 0; x < 6; x++) bw.write(pieceToChar(posPieces[y][x]));
+                for (int x = 0; x < 6; x++) bw.write(pieceToChar(pieceAt(y * 6 + x)));
                 bw.write(" " + numStr);
                 bw.newLine();
             }
@@ -167,27 +366,6 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
         }
     }
 
-    // --- CONVERSION COORDONNÉES ---
-
-    /** Convertit une coordonnée de type "A1" en indices de tableau [y,x]
-     * exemple: "A1" -> [5,0]
-     * */
-    private int[] parseCoordinate(String coord) {
-        if (coord == null || coord.length() != 2) return null;
-        int x = coord.charAt(0) - 'A';
-        int y = 6 - (coord.charAt(1) - '0');
-        if (!isValidCoordinate(x, y)) return null;
-        return new int[]{y, x};
-    }
-
-    /** Convertit des indices de tableau [x,y] en coordonnée de type "A1"
-     * exemple: [5,0] -> "A1"
-     * */
-    private String coordToString(int x, int y) {
-        if (!isValidCoordinate(x, y)) return null;
-        return "" + (char) ('A' + x) + (6 - y);
-    }
-
     // --- VALIDATION DE COUPS  ---
 
     /** Vérifie si un coup est valide selon les règles du jeu.
@@ -198,98 +376,122 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
      */
     @Override
     public boolean isValidMove(String move, String player) {
+        // Conversion unique de la chaîne en coup codé
+        EscampeMove m = EscampeMove.fromString(move);
+        if (m == null) return false;
+        return estValide(m.code, EscampeRole.fromName(player).index == TRAIT_BLANC);
+    }
 
+    /** Vérifie la validité d'un coup codé (voir EscampeMove).
+     *
+     * @param code    Le coup codé
+     * @param isWhite Couleur du joueur qui joue
+     */
+    private boolean estValide(int code, boolean isWhite) {
         // Cas spéciaux : Passer ou Placement
-        if (move.equals("E") || move.contains("/")) return true;
-
-        // Coup normal : "A1-B2"
-        String[] parts = move.split("-");
-
-        if (parts.length != 2) return false;
-
-        // Conversion des coordonnées : "A1" -> [y,x]
-        int[] start = parseCoordinate(parts[0]);
-        int[] end = parseCoordinate(parts[1]);
-        if (start == null || end == null) return false;
+        if (EscampeMove.estPasse(code) || EscampeMove.estPlacement(code)) return true;
 
-        // Extraction des indices
-        int y1 = start[0], x1 = start[1];
-        int y2 = end[0], x2 = end[1];
+        int from = EscampeMove.depart(code);
+        int to = EscampeMove.arrivee(code);
+        long amis = isWhite ? (paladinsBlancs | licorneBlanche) : (paladinsNoirs | licorneNoire);
+        long paladinsAdverses = isWhite ? paladinsNoirs : paladinsBlancs;
 
         // === Verifications de la validité du coup ===
         // Vérif Pièce Départ (Existante et Appartient au Joueur)
-        int piece = posPieces[y1][x1];
-        if (piece == VIDE) return false;
-        boolean isWhite = (piece > 0);
-        if (isWhite != player.equalsIgnoreCase("blanc")) return false;
+        if ((amis & (1L << from)) == 0) return false;
 
         // Vérif Liseré Imposé s'il y en a un
-        int lisereDepart = getLisere(x1, y1);
+        int lisereDepart = LISERE_CASE[from];
         if (lisereCourant != 0 && lisereDepart != lisereCourant) return false;
 
         // Vérif Case Arrivée (Tir fratricide / Paladin imprenable)
-        int target = posPieces[y2][x2];
-        if (target != VIDE) {
-            if ((target > 0) == isWhite) return false; // Ami
-            if (Math.abs(target) == PALADIN_BLANC) return false; // Paladin adverse
-        }
+        if (((amis | paladinsAdverses) & (1L << to)) != 0) return false;
 
         // Vérif Chemin
         // Existe-t-il un chemin de longueur 'lisereDepart' allant de Départ à Arrivée ?
         // Contraintes : Pas de diagonale, cases intermédiaires vides, pas de retour arrière.
-        return existsPath(x1, y1, x2, y2, lisereDepart, new HashSet<>());
+        return (destinations(from, lisereDepart, occupation()) & (1L << to)) != 0;
     }
 
-    /**
-     * Vérifie récursivement si un chemin existe vers une case cible.
-     *
-     * @param cx      X courant
-     * @param cy      Y courant
-     * @param tx      X cible
-     * @param ty      Y cible
-     * @param steps   Pas restants
-     * @param visited Cases visitées dans ce trajet
-     */
-    private boolean existsPath(int cx, int cy, int tx, int ty, int steps, Set<String> visited) {
-
-        String posKey = cx + "," + cy;
-        visited.add(posKey);// Marquer la case courante comme visitée
+    // --- TABLES DE CHEMINS PRÉCALCULÉES ---
 
-        // Cas de base : on a épuisé les pas
-        if (steps == 0) {
-            // On renvoie Vrai si on est sur la cible
-            return (cx == tx && cy == ty);
+    /* Pour chaque case de départ et chaque longueur 1, 2 ou 3, on énumère une fois pour toutes
+     * les chemins orthogonaux qui ne repassent pas par une case déjà visitée.
+     * CHEMINS_INTER[sq][lg][i] : masque des cases intermédiaires du chemin i (elles doivent être vides)
+     * CHEMINS_ARRIVEE[sq][lg][i] : masque (un seul bit) de la case d'arrivée du chemin i
+     */
+    private static final long[][][] CHEMINS_INTER = new long[36][4][];
+    private static final long[][][] CHEMINS_ARRIVEE = new long[36][4][];
+
+    static {
+        for (int sq = 0; sq < 36; sq++) {
+            for (int lg = 1; lg <= 3; lg++) {
+                ArrayList<long[]> chemins = new ArrayList<>();
+                enumererChemins(sq % 6, sq / 6, lg, 1L << sq, 0L, chemins);
+                CHEMINS_INTER[sq][lg] = new long[chemins.size()];
+                CHEMINS_ARRIVEE[sq][lg] = new long[chemins.size()];
+                for (int i = 0; i < chemins.size(); i++) {
+                    CHEMINS_INTER[sq][lg][i] = chemins.get(i)[0];
+                    CHEMINS_ARRIVEE[sq][lg][i] = chemins.get(i)[1];
+                }
+            }
         }
+    }
 
-        // Exploration des 4 voisins orthogonaux
+    /**
+     * Énumère récursivement les chemins (utilisé uniquement à l'initialisation des tables).
+     *
+     * @param cx       X courant
+     * @param cy       Y courant
+     * @param steps    Pas restants
+     * @param visited  Masque des cases déjà visitées dans ce trajet (départ compris)
+     * @param inter    Masque des cases intermédiaires déjà traversées
+     * @param chemins  Liste des chemins trouvés, sous la forme {inter, arrivée}
+     */
+    private static void enumererChemins(int cx, int cy, int steps, long visited, long inter, List<long[]> chemins) {
         int[][] dirs = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}};
         for (int[] d : dirs) {
             int nx = cx + d[0];
             int ny = cy + d[1];
+            if (nx < 0 || nx >= 6 || ny < 0 || ny >= 6) continue;
 
-            // Dans le plateau ?
-            if (!isValidCoordinate(nx, ny)) continue;
+            long b = 1L << (ny * 6 + nx);
+            // Interdiction de repasser par la même case
+            if ((visited & b) != 0) continue;
 
-            // Pas déjà visité (interdiction de repasser par la même case)
-            if (visited.contains(nx + "," + ny)) continue;
-
-            // Case intermédiaire doit être VIDE
-            // (Sauf si c'est la toute dernière case du chemin, où on a le droit de manger)
-            if (steps > 1 && posPieces[ny][nx] != VIDE) continue;
-
-            // Appel récursif pour le voisin
-            if (existsPath(nx, ny, tx, ty, steps - 1, visited)) {
-                return true;
+            if (steps == 1) {
+                chemins.add(new long[]{inter, b});
+            } else {
+                enumererChemins(nx, ny, steps - 1, visited | b, inter | b, chemins);
             }
         }
+    }
 
-        // Aucun chemin trouvé, on demarque la case comme non visitée pour d'autres trajets
-        visited.remove(posKey);
-        return false;
+    /**
+     * Calcule toutes les cases atteignables depuis sq en exactement lg pas, les cases
+     * intermédiaires devant être vides. Les contraintes sur la case d'arrivée (pièce amie,
+     * paladin adverse) sont laissées à l'appelant.
+     *
+     * @param sq   Case de départ (y * 6 + x)
+     * @param lg   Longueur du déplacement (liseré de la case de départ)
+     * @param occ  Masque des cases occupées
+     * @return le masque des cases d'arrivée possibles
+     */
+    private static long destinations(int sq, int lg, long occ) {
+        long[] inter = CHEMINS_INTER[sq][lg];
+        long[] arrivee = CHEMINS_ARRIVEE[sq][lg];
+        long dests = 0L;
+        for (int i = 0; i < inter.length; i++) {
+            if ((inter[i] & occ) == 0) dests |= arrivee[i];
+        }
+        return dests;
     }
 
     // --- GÉNÉRATION DES COUPS POSSIBLES ---
 
+    /** Nombre maximal de coups d'une position : 6 pièces, au plus 16 arrivées chacune (liseré 3). */
+    public static final int MAX_COUPS = 96;
+
     /** Génère tous les coups possibles pour le joueur donné.
      *
      * @param player "blanc" ou "noir"
@@ -297,136 +499,310 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
      */
     @Override
     public String[] possiblesMoves(String player) {
-        // Initialisation de la liste des coups
-        ArrayList<String> moves = new ArrayList<>();
-        boolean isWhiteTurn = player.equalsIgnoreCase("blanc");
+        // Conversion en String uniquement ici (frontière Partie1)
+        int[] coups = new int[MAX_COUPS];
+        int n = genererDeplacements(EscampeRole.fromName(player).index == TRAIT_BLANC, coups);
+        String[] moves = new String[n];
+        for (int i = 0; i < n; i++) {
+            moves[i] = EscampeMove.of(coups[i]).toString();
+        }
+        return moves;
+    }
 
-        for (int y = 0; y < 6; y++) {
-            for (int x = 0; x < 6; x++) {
-                // Pièce présente ? Appartient au joueur courant ?
-                int piece = posPieces[y][x];
-                if (piece == VIDE) continue;
-                if ((piece > 0) != isWhiteTurn) continue;
-
-                // Vérif s'il y a un Liseré Imposé
-                int lisere = getLisere(x, y);
-                if (lisereCourant != 0 && lisere != lisereCourant) continue;
-
-                // On lance la recherche de toutes les destinations possibles
-                Set<String> destinations = new HashSet<>();
-                findDestinations(x, y, lisere, new HashSet<>(), destinations, isWhiteTurn);
-
-                // On ajoute les coups à la liste
-                String startStr = coordToString(x, y);
-                for (String destStr : destinations) {
-                    moves.add(startStr + "-" + destStr);
-                }
+    /** Écrit les déplacements du joueur donné dans un tableau fourni par l'appelant, sans
+     * aucune allocation. Chaque coup est codé comme dans EscampeMove, pièce prise comprise.
+     *
+     * @param isWhiteTurn Couleur du joueur
+     * @param coups       Tableau de destination (au moins MAX_COUPS cases)
+     * @return le nombre de coups écrits
+     */
+    private int genererDeplacements(boolean isWhiteTurn, int[] coups) {
+        int n = 0;
+
+        // Pièces du joueur courant, restreintes au liseré imposé s'il y en a un
+        long amis = isWhiteTurn ? (paladinsBlancs | licorneBlanche) : (paladinsNoirs | licorneNoire);
+        long paladinsAdverses = isWhiteTurn ? paladinsNoirs : paladinsBlancs;
+        long licorneAdverse = isWhiteTurn ? licorneNoire : licorneBlanche;
+        int priseLicorne = isWhiteTurn ? LICORNE_NOIRE : LICORNE_BLANCHE;
+        long occ = occupation();
+        long pieces = amis;
+        if (lisereCourant != 0) pieces &= MASQUES_LISERE[lisereCourant];
+
+        while (pieces != 0) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+
+            // Destinations atteignables, sans tir fratricide ni prise de paladin
+            long dests = destinations(sq, LISERE_CASE[sq], occ) & ~amis & ~paladinsAdverses;
+            while (dests != 0) {
+                int to = Long.numberOfTrailingZeros(dests);
+                dests &= dests - 1;
+                int prise = ((licorneAdverse >>> to) & 1) != 0 ? priseLicorne : VIDE;
+                coups[n++] = EscampeMove.avecPrise(EscampeMove.code(sq, to), prise);
             }
         }
-        return moves.toArray(new String[0]);
+        return n;
     }
 
-    /**
-     * Recherche récursive de toutes les destinations possibles depuis une position donnée sans verifier la validité des coups.
+    /** Écrit les prises de licorne du joueur donné (coups de genererDeplacements arrivant sur la
+     * licorne adverse), sans allocation.
      *
-     * @param cx          X courant
-     * @param cy          Y courant
-     * @param steps       Pas restants
-     * @param visited     Cases visitées dans ce trajet
-     * @param foundDests  Ensemble des destinations trouvées
-     * @param isWhite     Couleur du joueur courant
+     * @return le nombre de coups écrits
      */
-    private void findDestinations(int cx, int cy, int steps, Set<String> visited, Set<String> foundDests, boolean isWhite) {
-        String posKey = cx + "," + cy;
-        visited.add(posKey);
-
-        // Cas de base : on a épuisé les pas
-        if (steps == 0) {
-            // Fin du trajet : c'est une destination valide
-            foundDests.add(coordToString(cx, cy));
-            visited.remove(posKey);
-            return;
+    private int genererPrises(boolean isWhiteTurn, int[] coups) {
+        long licorneAdverse = isWhiteTurn ? licorneNoire : licorneBlanche;
+        if (licorneAdverse == 0) return 0;
+        int cible = Long.numberOfTrailingZeros(licorneAdverse);
+        long pieces = isWhiteTurn ? (paladinsBlancs | licorneBlanche) : (paladinsNoirs | licorneNoire);
+        if (lisereCourant != 0) pieces &= MASQUES_LISERE[lisereCourant];
+        long occ = occupation();
+        int n = 0;
+        while (pieces != 0) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            if (atteint(sq, licorneAdverse, occ)) {
+                coups[n++] = EscampeMove.avecPrise(EscampeMove.code(sq, cible),
+                        isWhiteTurn ? LICORNE_NOIRE : LICORNE_BLANCHE);
+            }
         }
+        return n;
+    }
 
-        // Exploration des 4 voisins orthogonaux
-        int[][] dirs = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}};
-        for (int[] d : dirs) {
-            int nx = cx + d[0];
-            int ny = cy + d[1];
+    /** Vrai si la licorne du joueur donné est menacée : une pièce adverse pourrait la prendre
+     * si c'était à l'adversaire de jouer, quel que soit le liseré qui lui sera imposé.
+     */
+    private boolean licorneMenacee(boolean isWhite) {
+        long licorne = isWhite ? licorneBlanche : licorneNoire;
+        if (licorne == 0) return false;
+        long pieces = isWhite ? (paladinsNoirs | licorneNoire) : (paladinsBlancs | licorneBlanche);
+        long occ = occupation();
+        while (pieces != 0) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            if (atteint(sq, licorne, occ)) return true;
+        }
+        return false;
+    }
 
-            if (!isValidCoordinate(nx, ny)) continue;
-            if (visited.contains(nx + "," + ny)) continue;
+    /** Vrai si la pièce en sq atteint la case cible (masque d'une case) en un déplacement. */
+    private static boolean atteint(int sq, long cible, long occ) {
+        int lg = LISERE_CASE[sq];
+        long[] inter = CHEMINS_INTER[sq][lg];
+        long[] arrivee = CHEMINS_ARRIVEE[sq][lg];
+        for (int i = 0; i < inter.length; i++) {
+            if (arrivee[i] == cible && (inter[i] & occ) == 0) return true;
+        }
+        return false;
+    }
 
-            // Vérification obstacle
-            int targetPiece = posPieces[ny][nx];
+    // --- MOBILITÉ (heuristiques) ---
+    // Les déplacements sont comptés (popcount des destinations) sans être générés : ni tableau de
+    // coups ni objet. Le liseré imposé n'est appliqué que si l'appelant le passe en filtre : il ne
+    // contraint que le joueur au trait (voir getLisereImpose).
 
-            if (steps > 1) {
-                // Case intermédiaire : DOIT être vide
-                if (targetPiece == VIDE) {
-                    findDestinations(nx, ny, steps - 1, visited, foundDests, isWhite);
-                }
-            } else {
-                // Dernière case (steps == 1 -> 0) : PEUT être vide OU capture valide
-                boolean canLand = false;
-                if (targetPiece == VIDE) canLand = true;
-                else {
-                    boolean isTargetWhite = (targetPiece > 0);
-                    // Capture ennemi autorisée SI ce n'est pas un paladin
-                    if (isTargetWhite != isWhite && Math.abs(targetPiece) != PALADIN_BLANC) {
-                        canLand = true;
-                    }
-                }
+    /** Nombre de déplacements du joueur.
+     *
+     * @param role         Le joueur
+     * @param lisereFiltre 0 pour toutes ses pièces, 1 à 3 pour ses seules pièces de ce liseré
+     */
+    public int mobility(EscampeRole role, int lisereFiltre) {
+        boolean isWhite = role.index == TRAIT_BLANC;
+        long amis = isWhite ? (paladinsBlancs | licorneBlanche) : (paladinsNoirs | licorneNoire);
+        long bloquees = amis | (isWhite ? paladinsNoirs : paladinsBlancs);
+        long pieces = lisereFiltre == 0 ? amis : amis & MASQUES_LISERE[lisereFiltre];
+        long occ = occupation();
+        int n = 0;
+        while (pieces != 0) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            n += Long.bitCount(destinations(sq, LISERE_CASE[sq], occ) & ~bloquees);
+        }
+        return n;
+    }
 
-                if (canLand) {
-                    findDestinations(nx, ny, steps - 1, visited, foundDests, isWhite);
-                }
-            }
+    /** Déplacements du joueur par liseré de départ, sans liseré imposé.
+     *
+     * @param parLisere Reçoit en [1], [2] et [3] les déplacements des pièces de chaque liseré,
+     *                  en [0] leur total
+     * @return le total
+     */
+    public int mobilityByLisere(EscampeRole role, int[] parLisere) {
+        boolean isWhite = role.index == TRAIT_BLANC;
+        long amis = isWhite ? (paladinsBlancs | licorneBlanche) : (paladinsNoirs | licorneNoire);
+        long bloquees = amis | (isWhite ? paladinsNoirs : paladinsBlancs);
+        long occ = occupation();
+        parLisere[1] = 0;
+        parLisere[2] = 0;
+        parLisere[3] = 0;
+        while (amis != 0) {
+            int sq = Long.numberOfTrailingZeros(amis);
+            amis &= amis - 1;
+            int lg = LISERE_CASE[sq];
+            parLisere[lg] += Long.bitCount(destinations(sq, lg, occ) & ~bloquees);
         }
-        visited.remove(posKey);
+        parLisere[0] = parLisere[1] + parLisere[2] + parLisere[3];
+        return parLisere[0];
+    }
+
+    /** Liseré imposé au joueur : le liseré courant s'il est au trait, 0 (aucun) sinon. */
+    public int getLisereImpose(EscampeRole role) {
+        return role.index == joueurCourant ? lisereCourant : 0;
+    }
+
+    /** Comme genererDeplacements, mais un joueur bloqué (aucun déplacement possible) a pour
+     * seul coup la passe, qui lève le liseré imposé comme play("E", ...).
+     */
+    private int genererCoups(boolean isWhiteTurn, int[] coups) {
+        int n = genererDeplacements(isWhiteTurn, coups);
+        if (n == 0) coups[n++] = EscampeMove.avecPrise(EscampeMove.PASSE, VIDE);
+        return n;
     }
 
     // --- PLAY & GAMEOVER ---
     @Override
     public void play(String move, String player) {
-        // Passer
-        if (move.equals("E")) {
-            this.lisereCourant = 0;
-            this.joueurCourant = player.equalsIgnoreCase("blanc") ? "noir" : "blanc";
-            return;
-        }
-        // Placement
-        if (move.contains("/")) {
-            String[] positions = move.split("/");
-            // Placer la licorne
-            int licorneVal = player.equalsIgnoreCase("blanc") ? LICORNE_BLANCHE : LICORNE_NOIRE;
-            int[] l = parseCoordinate(positions[0]);
-            if (l != null) posPieces[l[0]][l[1]] = licorneVal;
-
-            // Placer les paladins
-            int paladinVal = player.equalsIgnoreCase("blanc") ? PALADIN_BLANC : PALADIN_NOIR;
-            for (int i = 1; i < positions.length; i++) {
-                int[] p = parseCoordinate(positions[i]);
-                if (p != null) posPieces[p[0]][p[1]] = paladinVal;
+        // Conversion unique de la chaîne en coup codé
+        EscampeMove m = EscampeMove.fromString(move);
+        if (m == null) throw new IllegalArgumentException("Coup mal formé : " + move);
+        jouer(m, EscampeRole.fromName(player).index == TRAIT_BLANC);
+    }
+
+    /** Joue un coup codé sur ce plateau.
+     *
+     * @param move    Le coup (déplacement, passe ou placement)
+     * @param isWhite Couleur du joueur qui joue
+     * @return l'enregistrement d'annulation (voir undoMove)
+     */
+    private long jouer(EscampeMove move, boolean isWhite) {
+        int code = move.code;
+        long undo = ((long) lisereCourant << UNDO_DECALAGE_LISERE) | ((long) joueurCourant << UNDO_DECALAGE_TRAIT);
+        int prise = VIDE;
+
+        if (EscampeMove.estPlacement(code)) {
+            // Placement de la licorne et des paladins (sur des cases vides)
+            long licorne = 1L << EscampeMove.depart(code);
+            if (isWhite) {
+                licorneBlanche |= licorne;
+                paladinsBlancs |= move.getPaladins();
+            } else {
+                licorneNoire |= licorne;
+                paladinsNoirs |= move.getPaladins();
+            }
+            hash ^= zobristPlacement(move, isWhite);
+            majLicornes();
+            setLisereCourant(0);
+        } else if (EscampeMove.estPasse(code)) {
+            // Passer : le liseré imposé est levé
+            setLisereCourant(0);
+        } else {
+            int from = EscampeMove.depart(code);
+            int to = EscampeMove.arrivee(code);
+            long dest = 1L << to;
+            long fromTo = (1L << from) | dest;
+
+            // Prise éventuelle (seule une licorne peut être prise)
+            if (to == caseLicorneBlanche) {
+                prise = LICORNE_BLANCHE;
+                licorneBlanche = 0L;
+                caseLicorneBlanche = -1;
+                partieFinie = true;
+            } else if (to == caseLicorneNoire) {
+                prise = LICORNE_NOIRE;
+                licorneNoire = 0L;
+                caseLicorneNoire = -1;
+                partieFinie = true;
+            }
+            hash ^= ZOBRIST_PIECES[prise + 2][to];
+
+            // Déplacement de la pièce
+            long depart = 1L << from;
+            int piece;
+            if ((paladinsBlancs & depart) != 0) {
+                paladinsBlancs ^= fromTo;
+                piece = PALADIN_BLANC;
+            } else if ((paladinsNoirs & depart) != 0) {
+                paladinsNoirs ^= fromTo;
+                piece = PALADIN_NOIR;
+            } else if (from == caseLicorneBlanche) {
+                licorneBlanche ^= fromTo;
+                caseLicorneBlanche = to;
+                piece = LICORNE_BLANCHE;
+            } else {
+                licorneNoire ^= fromTo;
+                caseLicorneNoire = to;
+                piece = LICORNE_NOIRE;
             }
-            // Reset liseré courant et changer de joueur
-            this.lisereCourant = 0;
-            this.joueurCourant = player.equalsIgnoreCase("blanc") ? "noir" : "blanc";
-            return;
+            hash ^= ZOBRIST_PIECES[piece + 2][from] ^ ZOBRIST_PIECES[piece + 2][to];
+
+            // Mise à jour du liseré courant
+            setLisereCourant(LISERE_CASE[to]);
         }
 
-        //Sionon Parsing du coup normal
-        String[] parts = move.split("-");
-        int[] start = parseCoordinate(parts[0]);
-        int[] end = parseCoordinate(parts[1]);
+        // Changement de joueur (Noir place, puis Blanc place et joue le premier déplacement)
+        setJoueurCourant(isWhite && !EscampeMove.estPlacement(code) ? TRAIT_NOIR : TRAIT_BLANC);
+        return undo | (prise + 2);
+    }
 
-        // Déplacement de la pièce
-        int piece = posPieces[start[0]][start[1]];
-        posPieces[start[0]][start[1]] = VIDE;
-        posPieces[end[0]][end[1]] = piece;
+    /** Annule un coup joué par jouer, à partir de son enregistrement d'annulation. */
+    private void annuler(EscampeMove move, long undo) {
+        int code = move.code;
+
+        if (EscampeMove.estPlacement(code)) {
+            // Placement : on vide les cases occupées par le placement
+            hash ^= zobristPlacement(move, (licorneBlanche & (1L << EscampeMove.depart(code))) != 0);
+            long cases = ~((1L << EscampeMove.depart(code)) | move.getPaladins());
+            paladinsBlancs &= cases;
+            paladinsNoirs &= cases;
+            licorneBlanche &= cases;
+            licorneNoire &= cases;
+            majLicornes();
+        } else if (!EscampeMove.estPasse(code)) {
+            // Coup normal : la pièce revient au départ...
+            int from = EscampeMove.depart(code);
+            int to = EscampeMove.arrivee(code);
+            long dest = 1L << to;
+            long fromTo = (1L << from) | dest;
+            int piece;
+            if (to == caseLicorneBlanche) {
+                licorneBlanche ^= fromTo;
+                caseLicorneBlanche = from;
+                piece = LICORNE_BLANCHE;
+            } else if (to == caseLicorneNoire) {
+                licorneNoire ^= fromTo;
+                caseLicorneNoire = from;
+                piece = LICORNE_NOIRE;
+            } else if ((paladinsBlancs & dest) != 0) {
+                paladinsBlancs ^= fromTo;
+                piece = PALADIN_BLANC;
+            } else {
+                paladinsNoirs ^= fromTo;
+                piece = PALADIN_NOIR;
+            }
+            hash ^= ZOBRIST_PIECES[piece + 2][from] ^ ZOBRIST_PIECES[piece + 2][to];
+
+            // ... et la licorne prise réapparaît
+            int prise = (int) (undo & 7) - 2;
+            if (prise == LICORNE_BLANCHE) {
+                licorneBlanche = dest;
+                caseLicorneBlanche = to;
+            } else if (prise == LICORNE_NOIRE) {
+                licorneNoire = dest;
+                caseLicorneNoire = to;
+            }
+            hash ^= ZOBRIST_PIECES[prise + 2][to];
+            partieFinie = caseLicorneBlanche < 0 || caseLicorneNoire < 0;
+        }
 
-        // Mise à jour du liseré courant et changement de joueur
-        this.lisereCourant = LISERES[end[0]][end[1]];
-        this.joueurCourant = player.equalsIgnoreCase("blanc") ? "noir" : "blanc";
+        setLisereCourant((int) (undo >>> UNDO_DECALAGE_LISERE) & 3);
+        setJoueurCourant((int) (undo >>> UNDO_DECALAGE_TRAIT) & 1);
+    }
+
+    /** Clé de Zobrist des pièces posées par un coup de placement. */
+    private static long zobristPlacement(EscampeMove move, boolean isWhite) {
+        int licorne = EscampeMove.depart(move.code);
+        return isWhite
+                ? ZOBRIST_PIECES[LICORNE_BLANCHE + 2][licorne] ^ zobrist(PALADIN_BLANC, move.getPaladins())
+                : ZOBRIST_PIECES[LICORNE_NOIRE + 2][licorne] ^ zobrist(PALADIN_NOIR, move.getPaladins());
     }
 
     /** Vérifie si la partie est terminée (un joueur a perdu sa licorne).
@@ -435,15 +811,8 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
      */
     @Override
     public boolean gameOver() {
-        boolean lb = false, ln = false;
-        for (int[] row : posPieces) {
-            for (int p : row) {
-                // Les 2 licornes sont-elles encore présentes ?
-                if (p == LICORNE_BLANCHE) lb = true;
-                if (p == LICORNE_NOIRE) ln = true;
-            }
-        }
-        return !(lb && ln);
+        // Les 2 licornes sont-elles encore présentes ? (tenu à jour à chaque coup)
+        return partieFinie;
     }
 
     // --- AFFICHAGE DU PLATEAU ---
@@ -453,7 +822,7 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
         for (int y = 0; y < 6; y++) {
             System.out.print(" " + (6 - y) + " | ");
             for (int x = 0; x < 6; x++) {
-                char c = pieceToChar(posPieces[y][x]);
+                char c = pieceToChar(pieceAt(y * 6 + x));
                 System.out.print((c == '-' ? '.' : c) + " ");
             }
             System.out.println("| " + (6 - y));
@@ -467,23 +836,61 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
 
     @Override
     public ArrayList<EscampeMove> possibleMoves(EscampeRole role) {
-        ArrayList<EscampeMove> moves = new ArrayList<>();
-        // On utilise votre méthode existante (possiblesMoves avec 's' à la fin)
-        String[] movesStr = this.possiblesMoves(role.getName());
-
-        for (String s : movesStr) {
-            moves.add(new EscampeMove(s));
+        // Version liste (HumanPlayer, tests) : on passe par le tableau de coups codés
+        int[] coups = new int[MAX_COUPS];
+        int n = genererCoups(role.index == TRAIT_BLANC, coups);
+        ArrayList<EscampeMove> moves = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            moves.add(EscampeMove.of(coups[i]));
         }
         return moves;
     }
 
+    @Override
+    public int possibleMoves(EscampeRole role, int[] buffer) {
+        return genererCoups(role.index == TRAIT_BLANC, buffer);
+    }
+
+    @Override
+    public int maxPossibleMoves() {
+        return MAX_COUPS;
+    }
+
+    @Override
+    public int captureMoves(EscampeRole role, int[] buffer) {
+        return genererPrises(role.index == TRAIT_BLANC, buffer);
+    }
+
+    @Override
+    public boolean isThreatened(EscampeRole role) {
+        return licorneMenacee(role.index == TRAIT_BLANC);
+    }
+
+    // Passer lève le liseré imposé (comme play("E", ...)) : l'adversaire joue deux fois de suite
+    @Override
+    public int nullMove() {
+        return EscampeMove.avecPrise(EscampeMove.PASSE, VIDE);
+    }
+
+    @Override
+    public EscampeMove decodeMove(int code) {
+        return EscampeMove.of(code);
+    }
+
+    // Seule une licorne peut être prise (et sa prise termine la partie) : elle passe avant tout
+    @Override
+    public int captureValue(int code) {
+        int prise = EscampeMove.prise(code);
+        return (prise == LICORNE_BLANCHE || prise == LICORNE_NOIRE) ? 1 : 0;
+    }
+
     @Override
     public EscampeBoard play(EscampeMove move, EscampeRole role) {
         // 1. On clone le plateau actuel pour ne pas modifier l'état réel
         EscampeBoard copy = new EscampeBoard(this);
 
         // 2. On joue le coup sur la copie
-        copy.play(move.moveStr, role.getName());
+        copy.jouer(move, role.index == TRAIT_BLANC);
 
         // 3. On renvoie la copie modifiée (nouvel état)
         return copy;
@@ -491,7 +898,7 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
 
     @Override
     public boolean isValidMove(EscampeMove move, EscampeRole role) {
-        return isValidMove(move.moveStr, role.getName());
+        return estValide(move.code, role.index == TRAIT_BLANC);
     }
 
     @Override
@@ -501,9 +908,45 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
 
     @Override
     public ArrayList<Score<EscampeRole>> getScores() {
-        // C'est ici qu'on branchera l'heuristique plus tard.
-        // Pour l'instant, on renvoie une liste vide pour que ça compile.
-        return new ArrayList<>();
+        ArrayList<Score<EscampeRole>> scores = new ArrayList<>();
+        // Partie en cours (ou plateau vide) : pas de score
+        if (!partieFinie || (caseLicorneBlanche < 0 && caseLicorneNoire < 0)) return scores;
+
+        // Le joueur dont la licorne a été prise a perdu
+        boolean blancGagne = caseLicorneBlanche >= 0;
+        scores.add(new Score<>(EscampeRole.BLANC, blancGagne ? Score.Status.WIN : Score.Status.LOOSE, blancGagne ? 1 : 0));
+        scores.add(new Score<>(EscampeRole.NOIR, blancGagne ? Score.Status.LOOSE : Score.Status.WIN, blancGagne ? 0 : 1));
+        return scores;
+    }
+
+    // --- COUPS EN PLACE (doMove / undoMove) ---
+
+    /* Enregistrement d'annulation (long) :
+     * bits 0-2 : pièce prise + 2 (0 = LICORNE_NOIRE ... 2 = VIDE ... 4 = LICORNE_BLANCHE)
+     * bits 3-4 : liseré courant avant le coup
+     * bit  5   : joueur au trait avant le coup
+     */
+    private static final int UNDO_DECALAGE_LISERE = 3;
+    private static final int UNDO_DECALAGE_TRAIT = 5;
+
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
+    @Override
+    public EscampeBoard copy() {
+        return new EscampeBoard(this);
+    }
+
+    @Override
+    public long doMove(EscampeMove move, EscampeRole role) {
+        return jouer(move, role.index == TRAIT_BLANC);
+    }
+
+    @Override
+    public void undoMove(EscampeMove move, EscampeRole role, long undo) {
+        annuler(move, undo);
     }
 
     // --- PROGRAMME PRINCIPAL DE TEST ---
@@ -589,7 +1032,7 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
             System.out.println("\n--- Analyse des coups pour : " + fileName + " ---");
             board.setFromFile(fileName);
             // On réinitialise le liseré courant à 0 pour simuler un début de tour libre
-            board.lisereCourant = 0;
+            board.setLisereCourant(0);
 
             String[] movesBlanc = board.possiblesMoves("blanc");
             String[] movesNoir = board.possiblesMoves("noir");
@@ -607,22 +1050,24 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
         board.setFromFile("test_input4.txt");
 
         // Configuration du test_input4 :
-        // - Blanc a un Paladin 'b' en A1 (Liseré 3)
-        // - Blanc a une Licorne 'B' en F3 (Liseré 1)
+        // - Blanc a un Paladin 'b' en A1 (Liseré 1)
+        // - Blanc a une Licorne 'B' en F3 (Liseré 3)
+        // Les coups sont triés avant comparaison : l'ordre de génération n'importe pas.
 
         // CAS 1 : On impose le Liseré 1
-        board.lisereCourant = 1;
+        board.setLisereCourant(1);
         System.out.println(">> IMPOSITION LISERÉ COURANT = 1");
-        System.out.println("   (Seule la Licorne 'B' en F3 est sur un liseré 1)");
+        System.out.println("   (Seul le Paladin 'b' en A1 est sur un liseré 1 et il peut uniquement aller en A2)");
 
         String[] movesContraints1 = board.possiblesMoves("blanc");
+        Arrays.sort(movesContraints1);
         String movesContraints1_str = Arrays.toString(movesContraints1);
         board.printBoard();
         System.out.println("Coups trouvés : " + movesContraints1_str);
 
 
-        if (Objects.equals(movesContraints1_str, "[F3-F2, F3-E3]")) {
-            System.out.println(">> SUCCÈS : Filtre OK (Seulement F3 proposé et il peut aller en F2 ou E3).");
+        if (Objects.equals(movesContraints1_str, "[A1-A2]")) {
+            System.out.println(">> SUCCÈS : Filtre OK (Seulement A1 proposé).");
         }
         else {
             System.out.println(">> ÉCHEC : Filtre incorrect.");
@@ -630,17 +1075,18 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove, EscampeRole, E
 
 
         // CAS 2 : On impose le Liseré 3
-        board.lisereCourant = 3;
+        board.setLisereCourant(3);
         System.out.println("\n>> IMPOSITION LISERÉ COURANT = 3");
-        System.out.println("   (Seul le Paladin 'b' en A1 est sur un liseré 3 et il peutu uniquement aller en B3)");
+        System.out.println("   (Seule la Licorne 'B' en F3 est sur un liseré 3)");
 
         String[] movesContraints3 = board.possiblesMoves("blanc");
+        Arrays.sort(movesContraints3);
         String movesContraints3_str = Arrays.toString(movesContraints3);
         board.printBoard();
         System.out.println("Coups trouvés : " + movesContraints3_str);
 
-        if (Objects.equals(movesContraints3_str, "[A1-B3]")) {
-            System.out.println(">> SUCCÈS : Filtre OK (Seulement A1 proposé).");
+        if (Objects.equals(movesContraints3_str, "[F3-C3, F3-D4, F3-E1, F3-E3, F3-E5, F3-F2]")) {
+            System.out.println(">> SUCCÈS : Filtre OK (Seulement F3 proposé).");
         }
         else {
             System.out.println(">> ÉCHEC : Filtre incorrect.");
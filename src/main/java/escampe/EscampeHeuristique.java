@@ -7,24 +7,26 @@ import iialib.games.algs.IHeuristic;
 // Plus un joueur a de coups possibles, mieux c'est pour lui.
 // Le score est calculé comme la différence entre le nombre de coups possibles
 // du joueur courant et celui de l'adversaire.
+//
+// Les coups sont comptés par EscampeBoard.mobility, sans être générés. Le liseré imposé ne
+// restreint que le joueur au trait : l'autre jouera sous le liseré que ce coup lui imposera.
 public class EscampeHeuristique implements IHeuristic<EscampeBoard, EscampeRole> {
 
     @Override
     public int eval(EscampeBoard board, EscampeRole role) {
         // --- HEURISTIQUE BASIQUE : MOBILITÉ ---
 
-        // On récupère mes coups possibles
-        int mesCoups = board.possibleMoves(role).size();
+        // On compte mes coups possibles
+        int mesCoups = board.mobility(role, board.getLisereImpose(role));
 
-        // On récupère les coups de l'adversaire
+        // On compte les coups de l'adversaire
         // (On inverse le rôle : si je suis blanc, l'autre est noir)
-        String couleurAdverse = role.getName().equals("blanc") ? "noir" : "blanc";
-        EscampeRole roleAdverse = new EscampeRole(couleurAdverse);
-        int coupsAdverse = board.possibleMoves(roleAdverse).size();
+        EscampeRole roleAdverse = role.opponent();
+        int coupsAdverse = board.mobility(roleAdverse, board.getLisereImpose(roleAdverse));
 
         // Le score est la différence
         // Si j'ai 10 coups et lui 2, score = 8 (C'est bon pour moi)
         // Si j'ai 2 coups et lui 10, score = -8 (C'est mauvais)
         return mesCoups - coupsAdverse;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package escampe;
+
+import iialib.games.algs.IHeuristic;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cache d'évaluation placé devant une heuristique d'Escampe (décorateur) : la même feuille est atteinte
+// par plusieurs ordres de coups, et une heuristique coûteuse (parcours des pièces, distances, mobilité)
+// n'est alors calculée qu'une fois. Pour une heuristique déjà très rapide, le gain est faible.
+//
+// Table à correspondance directe (une entrée par case, la nouvelle remplace l'ancienne) de taille
+// puissance de deux, en deux tableaux de long : la clé est le hash du plateau (pièces, joueur au trait
+// et liseré imposé) combiné au rôle évalué ; cles[i] contient clé ^ valeur, comme dans la table de
+// transposition, pour que les threads de la recherche la partagent sans verrou (une entrée déchirée
+// par deux écritures simultanées est vue comme absente).
+//
+// Indépendant de la table de transposition, qui garde des bornes de recherche et non des évaluations.
+public class EscampeHeuristiqueCache implements IHeuristic<EscampeBoard, EscampeRole> {
+
+    // Distingue l'évaluation pour Noir de celle pour Blanc de la même position
+    private static final long CLE_NOIR = 0x9E3779B97F4A7C15L;
+
+    private final IHeuristic<EscampeBoard, EscampeRole> heuristique;
+    private final long[] cles;
+    private final long[] valeurs;
+    private final int masque;
+
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+
+    /**
+     * @param heuristique Heuristique dont les évaluations sont gardées
+     * @param taille      Nombre d'entrées (une puissance de deux, 16 octets chacune)
+     */
+    public EscampeHeuristiqueCache(IHeuristic<EscampeBoard, EscampeRole> heuristique, int taille) {
+        if (taille <= 0 || Integer.bitCount(taille) != 1) {
+            throw new IllegalArgumentException("taille du cache : puissance de deux attendue, " + taille);
+        }
+        this.heuristique = heuristique;
+        this.cles = new long[taille];
+        this.valeurs = new long[taille];
+        this.masque = taille - 1;
+    }
+
+    @Override
+    public int eval(EscampeBoard board, EscampeRole role) {
+        long cle = board.getHash() ^ (role == EscampeRole.NOIR ? CLE_NOIR : 0L);
+        int i = (int) (cle ^ (cle >>> 32)) & masque;
+        long valeur = valeurs[i];
+        if ((cles[i] ^ valeur) == cle) {
+            succes.increment();
+            return (int) valeur;
+        }
+        echecs.increment();
+        int score = heuristique.eval(board, role);
+        valeur = score;
+        valeurs[i] = valeur;
+        cles[i] = cle ^ valeur;
+        return score;
+    }
+
+    public int getTaille() {
+        return cles.length;
+    }
+
+    public long getSucces() {
+        return succes.sum();
+    }
+
+    public long getEchecs() {
+        return echecs.sum();
+    }
+
+    /** Vide le cache (l'heuristique a changé) et remet les compteurs à zéro. */
+    public void vider() {
+        Arrays.fill(cles, 0L);
+        Arrays.fill(valeurs, 0L);
+        succes.reset();
+        echecs.reset();
+    }
+}
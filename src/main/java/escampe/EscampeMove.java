@@ -6,15 +6,153 @@ import iialib.games.model.IMove;
 // - représenter les coups dans le jeu d'Escampe
 // - implémenter l'interface IMove pour être compatible avec le framework de jeu
 // - fournir une méthode pour obtenir une représentation en chaîne de caractères du coup
+//
+// Un coup est codé par un entier (voir les constantes ci-dessous). Les coups de déplacement
+// et la passe sont des instances canoniques précalculées (EscampeMove.of), on n'en crée donc
+// jamais pendant la recherche. Les chaînes ("A1-B2") ne servent qu'à la frontière IJoueur/ClientJeu.
 public class EscampeMove implements IMove {
-    public final String moveStr; // Le coup en String (ex: "A1-B2")
 
-    public EscampeMove(String moveStr) {
-        this.moveStr = moveStr;
+    // --- CODAGE ENTIER D'UN COUP ---
+    // bits 0-5   : case de départ (y * 6 + x, y = 0 pour la ligne 6)
+    // bits 6-11  : case d'arrivée
+    // bit  12    : passe ("E")
+    // bit  13    : placement ("C6/A6/B5/D5/E6/F5"), la case de départ est alors celle de la licorne
+    // bits 14-16 : pièce prise + 2 (renseignée par la génération de coups, 2 = rien)
+    public static final int PASSE = 1 << 12;
+    public static final int PLACEMENT = 1 << 13;
+    private static final int DECALAGE_PRISE = 14;
+    private static final int MASQUE_COUP = (1 << DECALAGE_PRISE) - 1;
+
+    // Table des instances canoniques : une par couple départ/arrivée
+    private static final EscampeMove[] TABLE = new EscampeMove[36 * 36];
+    private static final EscampeMove COUP_PASSE = new EscampeMove(PASSE, 0L);
+
+    static {
+        for (int from = 0; from < 36; from++) {
+            for (int to = 0; to < 36; to++) {
+                TABLE[from * 36 + to] = new EscampeMove(code(from, to), 0L);
+            }
+        }
+    }
+
+    public final int code; // Le coup codé (sans la pièce prise)
+    private final long paladins; // Placement uniquement : masque des cases des paladins
+
+    private EscampeMove(int code, long paladins) {
+        this.code = code;
+        this.paladins = paladins;
+    }
+
+    // --- ACCÈS AU CODAGE ---
+
+    public static int code(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int depart(int code) {
+        return code & 63;
+    }
+
+    public static int arrivee(int code) {
+        return (code >>> 6) & 63;
+    }
+
+    /** Pièce prise (VIDE si aucune), telle que renseignée par la génération de coups. */
+    public static int prise(int code) {
+        return ((code >>> DECALAGE_PRISE) & 7) - 2;
+    }
+
+    public static int avecPrise(int code, int piece) {
+        return (code & MASQUE_COUP) | ((piece + 2) << DECALAGE_PRISE);
+    }
+
+    public static boolean estPasse(int code) {
+        return (code & PASSE) != 0;
+    }
+
+    public static boolean estPlacement(int code) {
+        return (code & PLACEMENT) != 0;
+    }
+
+    /** Renvoie l'instance canonique d'un coup de déplacement ou de la passe. */
+    public static EscampeMove of(int code) {
+        if (estPasse(code)) return COUP_PASSE;
+        return TABLE[(code & 63) * 36 + ((code >>> 6) & 63)];
+    }
+
+    /** Construit un coup de placement.
+     * @param licorne  Case de la licorne
+     * @param paladins Masque des cases des cinq paladins
+     */
+    public static EscampeMove placement(int licorne, long paladins) {
+        return new EscampeMove(PLACEMENT | licorne, paladins);
+    }
+
+    /** Masque des cases des paladins d'un coup de placement (0 sinon). */
+    public long getPaladins() {
+        return paladins;
+    }
+
+    // --- CONVERSIONS STRING (frontière IJoueur/ClientJeu uniquement) ---
+
+    /** Convertit une chaîne ("A1-B2", "E" ou "C6/A6/B5/D5/E6/F5") en coup.
+     * @return le coup, ou null si la chaîne est mal formée
+     */
+    public static EscampeMove fromString(String moveStr) {
+        if (moveStr.equals("E")) return COUP_PASSE;
+
+        // Placement : la licorne d'abord, puis les paladins
+        if (moveStr.contains("/")) {
+            String[] positions = moveStr.split("/");
+            int licorne = parseCase(positions[0]);
+            if (licorne < 0) return null;
+            long paladins = 0L;
+            for (int i = 1; i < positions.length; i++) {
+                int p = parseCase(positions[i]);
+                if (p >= 0) paladins |= 1L << p;
+            }
+            return placement(licorne, paladins);
+        }
+
+        String[] parts = moveStr.split("-");
+        if (parts.length != 2) return null;
+        int from = parseCase(parts[0]);
+        int to = parseCase(parts[1]);
+        if (from < 0 || to < 0) return null;
+        return TABLE[from * 36 + to];
+    }
+
+    /** Convertit une coordonnée de type "A1" en indice de case (y * 6 + x)
+     * exemple: "A1" -> 30
+     * @return l'indice, ou -1 si la coordonnée est invalide
+     */
+    public static int parseCase(String coord) {
+        if (coord == null || coord.length() != 2) return -1;
+        int x = coord.charAt(0) - 'A';
+        int y = 6 - (coord.charAt(1) - '0');
+        if (x < 0 || x >= 6 || y < 0 || y >= 6) return -1;
+        return y * 6 + x;
+    }
+
+    /** Convertit un indice de case en coordonnée de type "A1"
+     * exemple: 30 -> "A1"
+     */
+    public static String caseToString(int sq) {
+        return "" + (char) ('A' + sq % 6) + (6 - sq / 6);
     }
 
     @Override
     public String toString() {
-        return moveStr;
+        if (estPasse(code)) return "E";
+        if (estPlacement(code)) {
+            StringBuilder sb = new StringBuilder(caseToString(depart(code)));
+            long p = paladins;
+            while (p != 0) {
+                sb.append('/').append(caseToString(Long.numberOfTrailingZeros(p)));
+                p &= p - 1;
+            }
+            return sb.toString();
+        }
+        return caseToString(depart(code)) + "-" + caseToString(arrivee(code));
     }
-}
\ No newline at end of file
+}
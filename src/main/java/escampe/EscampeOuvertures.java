@@ -0,0 +1,138 @@
+package escampe;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+// Livre d'ouvertures d'Escampe : pour les positions du début de partie (plateau vide, après le placement
+// noir, après les deux placements et les premiers coups), les meilleurs coups trouvés hors partie par
+// des recherches profondes (EscampeOuverturesGenerateur), chacun avec un poids.
+//
+// Le fichier est projeté en mémoire (FileChannel.map) et sondé par recherche dichotomique :
+// rien n'est chargé au départ et une sonde lit une vingtaine d'entrées.
+//
+// Format : un en-tête de TAILLE_ENTETE octets ("ESOB", version, nombre d'entrées), puis les entrées
+// triées par clé, TAILLE_ENTREE octets chacune :
+// - la clé : le hash (getHash) de la position, joueur au trait et liseré compris
+// - la valeur : bits 0-35 les paladins d'un placement, bits 36-51 le coup codé (voir EscampeMove,
+//   sans la pièce prise), bits 52-63 le poids (1 à POIDS_MAX)
+// Une position a une entrée par coup du livre.
+public final class EscampeOuvertures {
+
+    static final int TAILLE_ENTETE = 16;
+    static final int TAILLE_ENTREE = 16;
+    private static final byte[] MAGIQUE = {'E', 'S', 'O', 'B'};
+    private static final int VERSION = 1;
+
+    static final int POIDS_MAX = (1 << 12) - 1;
+    private static final int DECALAGE_COUP = 36;
+    private static final int DECALAGE_POIDS = 52;
+    private static final long MASQUE_PALADINS = (1L << 36) - 1;
+
+    private final MappedByteBuffer entrees;
+    private final int nbEntrees;
+
+    private EscampeOuvertures(MappedByteBuffer entrees, int nbEntrees) {
+        this.entrees = entrees;
+        this.nbEntrees = nbEntrees;
+    }
+
+    /** Projette en mémoire un livre écrit par EscampeOuverturesGenerateur. */
+    public static EscampeOuvertures ouvrir(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            MappedByteBuffer entrees = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            for (int i = 0; i < MAGIQUE.length; i++) {
+                if (entrees.get(i) != MAGIQUE[i]) throw new IOException(fichier + " : pas un livre d'ouvertures");
+            }
+            if (entrees.get(4) != VERSION) throw new IOException(fichier + " : version " + entrees.get(4));
+            long nbEntrees = entrees.getLong(8);
+            if (canal.size() != TAILLE_ENTETE + nbEntrees * TAILLE_ENTREE) {
+                throw new IOException(fichier + " : taille incorrecte");
+            }
+            return new EscampeOuvertures(entrees, (int) nbEntrees);
+        }
+    }
+
+    public int getNbEntrees() {
+        return nbEntrees;
+    }
+
+    /**
+     * Tire au hasard (selon les poids) un des coups du livre pour la position de board.
+     *
+     * @return le coup, ou null si la position n'est pas dans le livre
+     */
+    public EscampeMove coup(EscampeBoard board, EscampeRole role, Random hasard) {
+        long cle = board.getHash();
+        int premiere = premiereEntree(cle);
+        int fin = premiere;
+        long total = 0;
+        while (fin < nbEntrees && cle(fin) == cle) {
+            total += poids(valeur(fin));
+            fin++;
+        }
+        if (total == 0) return null;
+
+        long tirage = (long) (hasard.nextDouble() * total);
+        for (int i = premiere; i < fin; i++) {
+            long valeur = valeur(i);
+            tirage -= poids(valeur);
+            if (tirage < 0) {
+                // Le hash peut (très rarement) coïncider avec une autre position : on vérifie le coup
+                EscampeMove coup = decoder(valeur);
+                return board.isValidMove(coup, role) ? coup : null;
+            }
+        }
+        return null;
+    }
+
+    /** Première entrée de clé au moins cle (nbEntrees s'il n'y en a pas) */
+    private int premiereEntree(long cle) {
+        int bas = 0;
+        int haut = nbEntrees;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (cle(milieu) < cle) bas = milieu + 1;
+            else haut = milieu;
+        }
+        return bas;
+    }
+
+    private long cle(int i) {
+        return entrees.getLong(TAILLE_ENTETE + i * TAILLE_ENTREE);
+    }
+
+    private long valeur(int i) {
+        return entrees.getLong(TAILLE_ENTETE + i * TAILLE_ENTREE + 8);
+    }
+
+    // --- CODAGE DES ENTRÉES ---
+
+    /** Valeur d'une entrée : le coup et son poids */
+    static long encoder(EscampeMove coup, int poids) {
+        return ((long) poids << DECALAGE_POIDS) | ((long) coup.code << DECALAGE_COUP) | coup.getPaladins();
+    }
+
+    static int poids(long valeur) {
+        return (int) (valeur >>> DECALAGE_POIDS);
+    }
+
+    static EscampeMove decoder(long valeur) {
+        int code = (int) (valeur >>> DECALAGE_COUP) & 0xFFFF;
+        if (EscampeMove.estPlacement(code)) {
+            return EscampeMove.placement(EscampeMove.depart(code), valeur & MASQUE_PALADINS);
+        }
+        return EscampeMove.of(code);
+    }
+
+    static void ecrireEntete(byte[] entete, long nbEntrees) {
+        System.arraycopy(MAGIQUE, 0, entete, 0, MAGIQUE.length);
+        entete[4] = VERSION;
+        for (int i = 0; i < 8; i++) {
+            entete[8 + i] = (byte) (nbEntrees >>> (56 - 8 * i));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package escampe;
+
+import iialib.games.algs.IHeuristic;
+import iialib.games.algs.algorithms.AlphaBeta;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Générateur du livre d'ouvertures (voir EscampeOuvertures), par des recherches bien plus profondes
+// que celles d'une partie :
+// - placement noir : les placements sont classés par EscampePlacement (plus profond et plus longtemps
+//   qu'en partie) ; le meilleur entre dans le livre
+// - placement blanc : pour chacun des placements noirs les mieux classés, le meilleur placement blanc
+// - premiers coups : depuis chacune de ces positions, chaque coup est évalué par AlphaBeta ; ceux à
+//   moins de MARGE du meilleur entrent dans le livre (poids selon l'écart), et l'arbre est développé
+//   sur les `largeur` meilleurs coups des deux camps, sur `demiCoups` demi-coups
+// Les coups d'une position sont évalués en parallèle (un AlphaBeta par coup).
+//
+// Usage : java escampe.EscampeOuverturesGenerateur fichier [profondeur] [demiCoups] [placementsNoirs] [largeur] [budgetPlacementS]
+public class EscampeOuverturesGenerateur {
+
+    // Écart maximal (en unités de l'heuristique) entre un coup du livre et le meilleur coup
+    private static final int MARGE = 2;
+
+    // Recherche des placements : profondeur et nombre de placements blancs tirés contre chaque placement noir
+    private static final int PROFONDEUR_PLACEMENT = 3;
+    private static final int ECHANTILLONS_PLACEMENT = 16;
+
+    private final int profondeur;
+    private final int demiCoups;
+    private final int placementsNoirs;
+    private final int largeur;
+    private final long budgetPlacementMs;
+    private final EscampePlacement placement = new EscampePlacement(PROFONDEUR_PLACEMENT, ECHANTILLONS_PLACEMENT);
+
+    // Les coups du livre de chaque position (clé : hash de la position)
+    private final Map<Long, List<Long>> entrees = new HashMap<>();
+
+    /**
+     * @param profondeur        Profondeur des recherches qui évaluent les premiers coups
+     * @param demiCoups         Nombre de demi-coups couverts après les placements
+     * @param placementsNoirs   Nombre de placements noirs auxquels le livre répond
+     * @param largeur           Nombre de coups développés par position
+     * @param budgetPlacementMs Temps de recherche de chaque placement
+     */
+    public EscampeOuverturesGenerateur(int profondeur, int demiCoups, int placementsNoirs, int largeur,
+                                       long budgetPlacementMs) {
+        this.profondeur = profondeur;
+        this.demiCoups = demiCoups;
+        this.placementsNoirs = placementsNoirs;
+        this.largeur = largeur;
+        this.budgetPlacementMs = budgetPlacementMs;
+    }
+
+    /** Calcule tout le livre. */
+    public void generer() {
+        EscampeBoard vide = new EscampeBoard();
+        List<EscampeMove> noirs = placement.meilleursPlacements(vide, false, budgetPlacementMs, placementsNoirs);
+        if (noirs.isEmpty()) throw new IllegalStateException("aucun placement noir évalué");
+        ajouter(vide, noirs.get(0), 1);
+
+        for (EscampeMove noir : noirs) {
+            EscampeBoard apresNoir = vide.play(noir, EscampeRole.NOIR);
+            EscampeMove blanc = placement.meilleurPlacement(apresNoir, true, budgetPlacementMs);
+            if (blanc == null) continue;
+            ajouter(apresNoir, blanc, 1);
+            System.out.println("Placements " + noir + " / " + blanc);
+            // Après les placements, Blanc joue le premier déplacement
+            developper(apresNoir.play(blanc, EscampeRole.BLANC), EscampeRole.BLANC, demiCoups);
+        }
+    }
+
+    /** Met dans le livre les meilleurs coups de role dans board, puis développe les `largeur` meilleurs */
+    private void developper(EscampeBoard board, EscampeRole role, int restants) {
+        if (restants == 0 || board.isGameOver() || entrees.containsKey(board.getHash())) return;
+
+        ArrayList<EscampeMove> coups = board.possibleMoves(role);
+        int[] scores = IntStream.range(0, coups.size()).parallel()
+                .map(i -> evaluer(board, coups.get(i), role))
+                .toArray();
+        Integer[] ordre = new Integer[coups.size()];
+        for (int i = 0; i < ordre.length; i++) ordre[i] = i;
+        Arrays.sort(ordre, (a, b) -> Integer.compare(scores[b], scores[a]));
+
+        // Un gain forcé n'admet que les coups aussi rapides ; sinon ceux proches du meilleur
+        int meilleur = scores[ordre[0]];
+        int marge = Math.abs(meilleur) >= IHeuristic.WIN_VALUE / 2 ? 0 : MARGE;
+        for (int i : ordre) {
+            int ecart = meilleur - scores[i];
+            if (ecart > marge) break;
+            ajouter(board, coups.get(i), 1 + marge - ecart);
+        }
+
+        for (int i = 0; i < Math.min(largeur, ordre.length); i++) {
+            developper(board.play(coups.get(ordre[i]), role), role.opponent(), restants - 1);
+        }
+    }
+
+    /** Valeur du coup pour role (recherche à profondeur - 1 après le coup) */
+    private int evaluer(EscampeBoard board, EscampeMove coup, EscampeRole role) {
+        AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> algo =
+                new AlphaBeta<>(role, role.opponent(), new EscampeHeuristique(), profondeur - 1);
+        return algo.evaluate(board.play(coup, role), role.opponent());
+    }
+
+    private void ajouter(EscampeBoard board, EscampeMove coup, int poids) {
+        entrees.computeIfAbsent(board.getHash(), cle -> new ArrayList<>())
+                .add(EscampeOuvertures.encoder(coup, Math.min(poids, EscampeOuvertures.POIDS_MAX)));
+    }
+
+    /** Écrit le livre (en-tête puis entrées triées par clé). */
+    public void ecrire(String fichier) throws IOException {
+        List<Long> cles = new ArrayList<>(entrees.keySet());
+        cles.sort(Long::compare);
+        long nbEntrees = 0;
+        for (List<Long> valeurs : entrees.values()) nbEntrees += valeurs.size();
+
+        byte[] entete = new byte[EscampeOuvertures.TAILLE_ENTETE];
+        EscampeOuvertures.ecrireEntete(entete, nbEntrees);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fichier)))) {
+            out.write(entete);
+            for (long cle : cles) {
+                for (long valeur : entrees.get(cle)) {
+                    out.writeLong(cle);
+                    out.writeLong(valeur);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage : java escampe.EscampeOuverturesGenerateur fichier [profondeur] [demiCoups]"
+                    + " [placementsNoirs] [largeur] [budgetPlacementS]");
+            return;
+        }
+        int profondeur = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        int demiCoups = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int placementsNoirs = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        int largeur = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+        long budgetPlacementMs = (args.length > 5 ? Long.parseLong(args[5]) : 30) * 1000;
+
+        EscampeOuverturesGenerateur generateur =
+                new EscampeOuverturesGenerateur(profondeur, demiCoups, placementsNoirs, largeur, budgetPlacementMs);
+        long debut = System.currentTimeMillis();
+        generateur.generer();
+        generateur.ecrire(args[0]);
+        System.out.println("Livre de " + generateur.entrees.size() + " positions écrit dans " + args[0] + " en "
+                + (System.currentTimeMillis() - debut) / 1000 + " s");
+    }
+}
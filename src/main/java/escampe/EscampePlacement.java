@@ -0,0 +1,196 @@
+package escampe;
+
+import iialib.games.algs.IHeuristic;
+import iialib.games.algs.algorithms.AlphaBeta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Le role de cette classe est de choisir le placement initial des six pièces :
+// - on énumère tous les placements légaux sur les deux lignes de départ du joueur
+//   (C(12,6) = 924 ensembles de cases x 6 choix de la case de la licorne = 5544 placements)
+// - chaque placement est évalué par une recherche AlphaBeta peu profonde contre le placement
+//   adverse (connu pour Blanc, qui place en second ; tiré au hasard pour Noir)
+// - les évaluations sont réparties sur tous les coeurs (fork/join) et s'arrêtent à la fin
+//   du budget de temps : on renvoie alors le meilleur placement évalué
+public class EscampePlacement {
+
+    // Au-delà de ce nombre de placements, une tâche est coupée en deux
+    private static final int SEUIL_DECOUPE = 32;
+
+    // Après les deux placements, c'est Blanc qui joue le premier déplacement
+    private static final EscampeRole BLANC = EscampeRole.BLANC;
+    private static final EscampeRole NOIR = EscampeRole.NOIR;
+
+    private final int profondeur;
+    private final int echantillons;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param profondeur   Profondeur de la recherche qui évalue chaque placement
+     * @param echantillons Nombre de placements adverses tirés au hasard quand on place en premier
+     */
+    public EscampePlacement(int profondeur, int echantillons) {
+        this.profondeur = profondeur;
+        this.echantillons = echantillons;
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    /** Énumère les placements légaux d'un joueur : la licorne et cinq paladins sur ses deux
+     * lignes de départ (lignes 1-2 pour Blanc, 5-6 pour Noir).
+     */
+    public static ArrayList<EscampeMove> placementsLegaux(boolean blanc) {
+        ArrayList<EscampeMove> placements = new ArrayList<>();
+        int premiereCase = blanc ? 24 : 0;
+        for (int cases = 0; cases < (1 << 12); cases++) {
+            if (Integer.bitCount(cases) != 6) continue;
+            long masque = (long) cases << premiereCase;
+            long reste = masque;
+            while (reste != 0) {
+                int licorne = Long.numberOfTrailingZeros(reste);
+                reste &= reste - 1;
+                placements.add(EscampeMove.placement(licorne, masque & ~(1L << licorne)));
+            }
+        }
+        return placements;
+    }
+
+    /**
+     * Cherche le meilleur placement pour un joueur.
+     *
+     * @param board  Plateau courant (contient déjà le placement adverse si l'adversaire a placé)
+     * @param blanc  Couleur du joueur qui place
+     * @param budget Temps maximal en millisecondes
+     * @return le meilleur placement trouvé, ou null si aucun n'a pu être évalué à temps
+     */
+    public EscampeMove meilleurPlacement(EscampeBoard board, boolean blanc, long budget) {
+        long finMs = System.currentTimeMillis() + budget;
+        ArrayList<EscampeMove> candidats = candidats(blanc);
+        EscampeBoard[] departs = departs(board, blanc, candidats.size());
+
+        long meilleur = pool.invoke(new Recherche(candidats, departs, blanc, 0, candidats.size(), finMs, null));
+        if (meilleur == Long.MIN_VALUE) return null;
+        return candidats.get((int) (meilleur & 0xFFFF));
+    }
+
+    /**
+     * Classe les placements d'un joueur (pour le livre d'ouvertures).
+     *
+     * @param n Nombre de placements voulus
+     * @return les n meilleurs placements évalués dans le budget, du meilleur au moins bon
+     */
+    public List<EscampeMove> meilleursPlacements(EscampeBoard board, boolean blanc, long budget, int n) {
+        long finMs = System.currentTimeMillis() + budget;
+        ArrayList<EscampeMove> candidats = candidats(blanc);
+        EscampeBoard[] departs = departs(board, blanc, candidats.size());
+
+        int[] scores = new int[candidats.size()];
+        Arrays.fill(scores, Integer.MIN_VALUE);
+        pool.invoke(new Recherche(candidats, departs, blanc, 0, candidats.size(), finMs, scores));
+
+        ArrayList<Integer> evalues = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] != Integer.MIN_VALUE) evalues.add(i);
+        }
+        evalues.sort((a, b) -> Integer.compare(scores[b], scores[a]));
+        ArrayList<EscampeMove> meilleurs = new ArrayList<>();
+        for (int i = 0; i < Math.min(n, evalues.size()); i++) {
+            meilleurs.add(candidats.get(evalues.get(i)));
+        }
+        return meilleurs;
+    }
+
+    // Les placements légaux, mélangés pour que des placements variés soient évalués si le temps manque
+    private static ArrayList<EscampeMove> candidats(boolean blanc) {
+        ArrayList<EscampeMove> candidats = placementsLegaux(blanc);
+        Collections.shuffle(candidats, new Random(42));
+        return candidats;
+    }
+
+    // Adversaires : le placement déjà joué, sinon un échantillon de placements aléatoires
+    // (graine fixe pour que le choix soit reproductible)
+    private EscampeBoard[] departs(EscampeBoard board, boolean blanc, int nbCandidats) {
+        if (blanc) {
+            return new EscampeBoard[]{board};
+        }
+        ArrayList<EscampeMove> adverses = placementsLegaux(true);
+        Random rnd = new Random(nbCandidats);
+        EscampeBoard[] departs = new EscampeBoard[echantillons];
+        for (int i = 0; i < echantillons; i++) {
+            departs[i] = board.play(adverses.get(rnd.nextInt(adverses.size())), BLANC);
+        }
+        return departs;
+    }
+
+    /** Évalue un placement du point de vue du joueur qui place (moyenne sur les départs). */
+    private int evaluer(EscampeMove placement, EscampeBoard[] departs, boolean blanc,
+                        AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> algo) {
+        EscampeRole moi = blanc ? BLANC : NOIR;
+        long total = 0;
+        for (EscampeBoard depart : departs) {
+            EscampeBoard plateau = depart.play(placement, moi);
+            total += algo.evaluate(plateau, BLANC);
+        }
+        return (int) (total / departs.length);
+    }
+
+    /* Tâche fork/join sur une tranche [debut, fin) des candidats.
+     * Résultat : (score << 16) | indice du meilleur candidat, Long.MIN_VALUE si rien n'a été évalué.
+     * Si scores n'est pas null, le score de chaque candidat évalué y est aussi noté.
+     */
+    private class Recherche extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayList<EscampeMove> candidats;
+        private final EscampeBoard[] departs;
+        private final boolean blanc;
+        private final int debut;
+        private final int fin;
+        private final long finMs;
+        private final int[] scores;
+
+        Recherche(ArrayList<EscampeMove> candidats, EscampeBoard[] departs, boolean blanc, int debut, int fin, long finMs,
+                  int[] scores) {
+            this.candidats = candidats;
+            this.departs = departs;
+            this.blanc = blanc;
+            this.debut = debut;
+            this.fin = fin;
+            this.finMs = finMs;
+            this.scores = scores;
+        }
+
+        @Override
+        protected Long compute() {
+            if (fin - debut > SEUIL_DECOUPE) {
+                int milieu = (debut + fin) >>> 1;
+                Recherche gauche = new Recherche(candidats, departs, blanc, debut, milieu, finMs, scores);
+                gauche.fork();
+                long droite = new Recherche(candidats, departs, blanc, milieu, fin, finMs, scores).compute();
+                return Math.max(gauche.join(), droite);
+            }
+
+            // Un AlphaBeta par tâche : ses tampons et compteurs ne sont pas partagés
+            EscampeRole moi = blanc ? BLANC : NOIR;
+            EscampeRole adversaire = blanc ? NOIR : BLANC;
+            AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> algo =
+                    new AlphaBeta<>(moi, adversaire, new EscampeHeuristique(), profondeur);
+
+            long meilleur = Long.MIN_VALUE;
+            for (int i = debut; i < fin; i++) {
+                if (System.currentTimeMillis() >= finMs) break;
+                int score = evaluer(candidats.get(i), departs, blanc, algo);
+                // Les scores de fin de partie sont ramenés dans l'intervalle codable
+                score = Math.max(-IHeuristic.WIN_VALUE, Math.min(IHeuristic.WIN_VALUE, score));
+                if (scores != null) scores[i] = score;
+                meilleur = Math.max(meilleur, ((long) score << 16) | i);
+            }
+            return meilleur;
+        }
+    }
+}
@@ -7,31 +7,58 @@ import iialib.games.model.IRole;
 //- implémenter l'interface IRole pour être compatible avec le framework de jeu
 //- fournir des méthodes pour obtenir le nom du rôle, vérifier l'égalité entre rôles
 //  et obtenir une représentation en chaîne de caractères du rôle
+//
+// Il n'existe que deux instances (BLANC et NOIR) : le code de jeu et de recherche compare
+// leur indice, les noms "blanc"/"noir" ne servent qu'à la frontière Partie1/IJoueur.
+
+public final class EscampeRole implements IRole {
+    public static final int INDEX_BLANC = 0;
+    public static final int INDEX_NOIR = 1;
+
+    public static final EscampeRole BLANC = new EscampeRole("blanc", INDEX_BLANC, 1);
+    public static final EscampeRole NOIR = new EscampeRole("noir", INDEX_NOIR, -1);
 
-public class EscampeRole implements IRole {
     private final String couleur; // "blanc" ou "noir"
+    public final int index; // INDEX_BLANC ou INDEX_NOIR
+    public final int signe; // +1 pour Blanc, -1 pour Noir (signe de ses pièces sur le plateau)
 
-    public EscampeRole(String couleur) {
+    private EscampeRole(String couleur, int index, int signe) {
         this.couleur = couleur;
+        this.index = index;
+        this.signe = signe;
+    }
+
+    /** Convertit un nom de joueur ("blanc" ou "noir", casse ignorée) en rôle. */
+    public static EscampeRole fromName(String couleur) {
+        return couleur.equalsIgnoreCase("blanc") ? BLANC : NOIR;
+    }
+
+    /** Le rôle adverse. */
+    public EscampeRole opponent() {
+        return index == INDEX_BLANC ? NOIR : BLANC;
     }
 
     public String getName() {
         return couleur;
     }
 
-    // Redéfinition de la méthode equals pour comparer les rôles basés sur la couleur
+    // Redéfinition de la méthode equals pour comparer les rôles basés sur leur indice
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        EscampeRole that = (EscampeRole) o;
-        return couleur.equals(that.couleur);
+        return index == ((EscampeRole) o).index;
+    }
+
+    @Override
+    public int hashCode() {
+        return index;
     }
 
     // Redéfinition de la méthode toString pour obtenir une représentation en chaîne de caractères du rôle
-    // exemple : on passe de EscampeRole("blanc") à "blanc"
+    // exemple : on passe de EscampeRole.BLANC à "blanc"
     @Override
     public String toString() {
         return couleur;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,210 @@
+package escampe;
+
+import iialib.games.algs.IEndgameTablebase;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Table de finales d'Escampe : valeur exacte (gain, perte ou nulle, avec la distance en demi-coups)
+// de toutes les positions d'au plus K pièces, calculée par EscampeTablebaseGenerateur.
+//
+// Le fichier est projeté en mémoire (FileChannel.map) : une sonde coûte un calcul d'indice et une
+// lecture d'octet, sans rien charger au départ.
+//
+// Format : un en-tête de TAILLE_ENTETE octets ("ESTB", version, K), puis un octet par position :
+// 0 pour une nulle, sinon la distance d en demi-coups jusqu'à la prise d'une licorne ; d impair
+// (le joueur au trait prend la licorne adverse) est un gain, d pair une perte.
+//
+// Indice d'une position : les matériels (paladins blancs pb, paladins noirs pn) se suivent par pb puis pn
+// croissants ; dans un matériel, l'indice combine la case des deux licornes, le rang (combinatoire)
+// des cases des paladins blancs parmi les cases libres, puis celui des paladins noirs, le joueur au
+// trait et le liseré imposé (0 à 3).
+public final class EscampeTablebase implements IEndgameTablebase<EscampeBoard, EscampeRole> {
+
+    static final int TAILLE_ENTETE = 8;
+    private static final byte[] MAGIQUE = {'E', 'S', 'T', 'B'};
+    private static final int VERSION = 1;
+
+    /** Nombre maximal de pièces d'une table (au-delà, le fichier dépasse 2 Go) */
+    public static final int K_MAX = 5;
+
+    /** Coefficients binomiaux C(n, k), n <= 36 */
+    private static final long[][] BINOMIAUX = new long[37][7];
+
+    static {
+        for (int n = 0; n <= 36; n++) {
+            BINOMIAUX[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, 6); k++) {
+                BINOMIAUX[n][k] = BINOMIAUX[n - 1][k - 1] + (k <= n - 1 ? BINOMIAUX[n - 1][k] : 0);
+            }
+        }
+    }
+
+    private final MappedByteBuffer valeurs;
+    private final int k;
+    private final long[] debuts;
+
+    private EscampeTablebase(MappedByteBuffer valeurs, int k) {
+        this.valeurs = valeurs;
+        this.k = k;
+        this.debuts = debutsMateriels(k);
+    }
+
+    /** Projette en mémoire une table écrite par EscampeTablebaseGenerateur. */
+    public static EscampeTablebase ouvrir(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            MappedByteBuffer valeurs = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            for (int i = 0; i < MAGIQUE.length; i++) {
+                if (valeurs.get(i) != MAGIQUE[i]) throw new IOException(fichier + " : pas une table de finales");
+            }
+            if (valeurs.get(4) != VERSION) throw new IOException(fichier + " : version " + valeurs.get(4));
+            int k = valeurs.get(5);
+            if (canal.size() != TAILLE_ENTETE + taille(k)) throw new IOException(fichier + " : taille incorrecte");
+            return new EscampeTablebase(valeurs, k);
+        }
+    }
+
+    /** Nombre de pièces (licornes comprises) des positions de la table */
+    public int getNbPieces() {
+        return k;
+    }
+
+    @Override
+    public int probe(EscampeBoard board, EscampeRole role) {
+        long indice = indice(board, role == EscampeRole.BLANC, k, debuts);
+        if (indice < 0) return UNKNOWN;
+        return decoder(valeurs.get((int) (TAILLE_ENTETE + indice)) & 0xFF);
+    }
+
+    /** Valeur signée (voir IEndgameTablebase.probe) d'un octet de la table */
+    static int decoder(int octet) {
+        if (octet == 0) return 0;
+        return (octet & 1) != 0 ? octet : -octet;
+    }
+
+    // --- INDICES ---
+
+    /** Nombre de positions d'une table à k pièces */
+    static long taille(int k) {
+        long[] debuts = debutsMateriels(k);
+        return debuts[debuts.length - 1];
+    }
+
+    /** Nombre de positions d'un matériel (pb paladins blancs, pn paladins noirs) */
+    static long tailleMateriel(int pb, int pn) {
+        return 36L * 35 * BINOMIAUX[34][pb] * BINOMIAUX[34 - pb][pn] * 8;
+    }
+
+    static long binomial(int n, int k) {
+        return BINOMIAUX[n][k];
+    }
+
+    /** Premier indice de chaque matériel, pb * 6 + pn (le dernier élément est la taille totale) */
+    static long[] debutsMateriels(int k) {
+        long[] debuts = new long[6 * 6 + 1];
+        long total = 0;
+        for (int m = 0; m < 36; m++) {
+            int pb = m / 6;
+            int pn = m % 6;
+            debuts[m] = total;
+            if (pb + pn <= k - 2) total += tailleMateriel(pb, pn);
+        }
+        debuts[36] = total;
+        return debuts;
+    }
+
+    /** Indice de la position de board, le joueur au trait étant blanc ou non
+     * @return l'indice, -1 si la position n'est pas dans la table (partie finie ou trop de pièces)
+     */
+    static long indice(EscampeBoard board, boolean traitBlanc, int k, long[] debuts) {
+        long lb = board.getLicorne(true);
+        long ln = board.getLicorne(false);
+        if (lb == 0 || ln == 0) return -1;
+        long pb = board.getPaladins(true);
+        long pn = board.getPaladins(false);
+        int nb = Long.bitCount(pb);
+        int nn = Long.bitCount(pn);
+        if (nb + nn > k - 2) return -1;
+
+        int cb = Long.numberOfTrailingZeros(lb);
+        int cn = Long.numberOfTrailingZeros(ln);
+        long i = cb * 35 + (cn > cb ? cn - 1 : cn);
+        i = i * BINOMIAUX[34][nb] + rang(pb, lb | ln);
+        i = i * BINOMIAUX[34 - nb][nn] + rang(pn, lb | ln | pb);
+        i = i * 8 + (traitBlanc ? 0 : 4) + board.getLisereCourant();
+        return debuts[nb * 6 + nn] + i;
+    }
+
+    /** Inverse de indice : met sur board la position d'indice i (pièces, joueur au trait et liseré imposé)
+     * @return true si Blanc a le trait
+     */
+    static boolean position(long i, long[] debuts, EscampeBoard board) {
+        int m = 0;
+        while (debuts[m + 1] <= i) m++;
+        int pb = m / 6;
+        int pn = m % 6;
+
+        long reste = i - debuts[m];
+        int t = (int) (reste % 8);
+        reste /= 8;
+        long rangNoirs = reste % BINOMIAUX[34 - pb][pn];
+        reste /= BINOMIAUX[34 - pb][pn];
+        long rangBlancs = reste % BINOMIAUX[34][pb];
+        reste /= BINOMIAUX[34][pb];
+        int cb = (int) (reste / 35);
+        int cn = (int) (reste % 35);
+        if (cn >= cb) cn++;
+
+        long lb = 1L << cb;
+        long ln = 1L << cn;
+        long paladinsBlancs = cases(rangBlancs, pb, lb | ln);
+        long paladinsNoirs = cases(rangNoirs, pn, lb | ln | paladinsBlancs);
+        boolean traitBlanc = t < 4;
+        board.setPosition(paladinsBlancs, lb, paladinsNoirs, ln, traitBlanc, t & 3);
+        return traitBlanc;
+    }
+
+    /** Rang (ordre colexicographique) de l'ensemble de cases parmi les cases hors de occupees */
+    static long rang(long cases, long occupees) {
+        long r = 0;
+        int i = 1;
+        while (cases != 0) {
+            int sq = Long.numberOfTrailingZeros(cases);
+            cases &= cases - 1;
+            int libre = sq - Long.bitCount(occupees & ((1L << sq) - 1));
+            r += BINOMIAUX[libre][i++];
+        }
+        return r;
+    }
+
+    /** Inverse de rang : les n cases de rang r parmi les cases hors de occupees */
+    static long cases(long r, int n, long occupees) {
+        long cases = 0;
+        for (int i = n; i >= 1; i--) {
+            // Plus grand rang libre c tel que C(c, i) <= r
+            int c = i - 1;
+            while (BINOMIAUX[c + 1][i] <= r) c++;
+            r -= BINOMIAUX[c][i];
+            cases |= 1L << caseLibre(c, occupees);
+        }
+        return cases;
+    }
+
+    /** c-ième case (à partir de 0) hors de occupees */
+    private static int caseLibre(int c, long occupees) {
+        long libres = ~occupees & ((1L << 36) - 1);
+        for (int j = 0; j < c; j++) {
+            libres &= libres - 1;
+        }
+        return Long.numberOfTrailingZeros(libres);
+    }
+
+    static void ecrireEntete(byte[] entete, int k) {
+        System.arraycopy(MAGIQUE, 0, entete, 0, MAGIQUE.length);
+        entete[4] = VERSION;
+        entete[5] = (byte) k;
+    }
+}
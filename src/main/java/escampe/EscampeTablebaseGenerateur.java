@@ -0,0 +1,176 @@
+package escampe;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Générateur de la table de finales (voir EscampeTablebase) par analyse rétrograde : on part des
+// positions gagnées en un demi-coup (une prise de licorne est possible) et on remonte une distance
+// à chaque passe :
+// - passe d impaire : une position est gagnée en d si un de ses coups mène à une position perdue en d - 1
+// - passe d paire : une position est perdue en d si tous ses coups mènent à des positions gagnées
+//   (en au plus d - 1)
+// Les positions encore inconnues quand deux passes de suite n'ont rien résolu sont nulles.
+// Chaque passe lit les distances des passes précédentes et n'écrit que la sienne (de l'autre parité) :
+// les threads se partagent les positions sans se gêner.
+//
+// Les prédécesseurs d'une position sont difficiles à énumérer avec les liserés et la passe forcée :
+// chaque passe rejoue donc les coups des positions non résolues (génération de coups du plateau).
+//
+// Usage : java escampe.EscampeTablebaseGenerateur K fichier [threads]
+public class EscampeTablebaseGenerateur {
+
+    // Positions traitées par tâche
+    private static final int POSITIONS_PAR_TACHE = 1 << 16;
+
+    private final int k;
+    private final long[] debuts;
+    private final byte[] valeurs;
+    private final int nbThreads;
+
+    public EscampeTablebaseGenerateur(int k, int nbThreads) {
+        if (k < 2 || k > EscampeTablebase.K_MAX) {
+            throw new IllegalArgumentException("nombre de pièces entre 2 et " + EscampeTablebase.K_MAX + " : " + k);
+        }
+        this.k = k;
+        this.debuts = EscampeTablebase.debutsMateriels(k);
+        this.valeurs = new byte[(int) EscampeTablebase.taille(k)];
+        this.nbThreads = Math.max(1, nbThreads);
+    }
+
+    /** Calcule toute la table. */
+    public void generer() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(nbThreads);
+        try {
+            int sansChangement = 0;
+            for (int d = 1; d <= 255 && sansChangement < 2; d++) {
+                long debut = System.currentTimeMillis();
+                long resolues = passe(pool, d);
+                System.out.println("Passe " + d + " : " + resolues + " positions "
+                        + ((d & 1) != 0 ? "gagnées" : "perdues") + " (" + (System.currentTimeMillis() - debut) + " ms)");
+                sansChangement = resolues == 0 ? sansChangement + 1 : 0;
+                if (d == 255 && sansChangement < 2) {
+                    throw new IllegalStateException("distance supérieure à 255 demi-coups");
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Résout les positions à distance d, réparties en tâches sur le pool
+     * @return le nombre de positions résolues
+     */
+    private long passe(ExecutorService pool, int d) throws InterruptedException {
+        AtomicLong resolues = new AtomicLong();
+        List<Future<?>> taches = new ArrayList<>();
+        for (int m = 0; m < 36; m++) {
+            if (m / 6 + m % 6 > k - 2) continue;
+            // Les tâches commencent sur un multiple de 8 : les 8 positions (trait, liseré) d'un placement
+            // de pièces sont traitées ensemble
+            for (long i = debuts[m]; i < debuts[m + 1]; i += POSITIONS_PAR_TACHE) {
+                long premier = i;
+                long fin = Math.min(i + POSITIONS_PAR_TACHE, debuts[m + 1]);
+                taches.add(pool.submit(() -> resolues.addAndGet(resoudre(premier, fin, d))));
+            }
+        }
+        for (Future<?> tache : taches) {
+            try {
+                tache.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("génération de la table", e.getCause());
+            }
+        }
+        return resolues.get();
+    }
+
+    /** Résout à distance d les positions [premier, fin) d'un matériel
+     * @return le nombre de positions résolues
+     */
+    private long resoudre(long premier, long fin, int d) {
+        EscampeBoard board = new EscampeBoard();
+        int[] coups = new int[board.maxPossibleMoves()];
+        long nbResolues = 0;
+
+        for (long groupe = premier; groupe < fin; groupe += 8) {
+            // Les pièces du groupe, communes à ses 8 positions (trait, liseré)
+            EscampeTablebase.position(groupe, debuts, board);
+            long paladinsBlancs = board.getPaladins(true);
+            long licorneBlanche = board.getLicorne(true);
+            long paladinsNoirs = board.getPaladins(false);
+            long licorneNoire = board.getLicorne(false);
+
+            for (int t = 0; t < 8; t++) {
+                int indice = (int) (groupe + t);
+                if (valeurs[indice] != 0) continue;
+                boolean traitBlanc = t < 4;
+                board.setPosition(paladinsBlancs, licorneBlanche, paladinsNoirs, licorneNoire, traitBlanc, t & 3);
+                if (resoudre(board, traitBlanc, coups, d)) {
+                    valeurs[indice] = (byte) d;
+                    nbResolues++;
+                }
+            }
+        }
+        return nbResolues;
+    }
+
+    /** Vrai si la position de board (trait à traitBlanc) est gagnée (d impair) ou perdue (d pair) en d */
+    private boolean resoudre(EscampeBoard board, boolean traitBlanc, int[] coups, int d) {
+        EscampeRole role = traitBlanc ? EscampeRole.BLANC : EscampeRole.NOIR;
+        int n = board.possibleMoves(role, coups);
+        for (int i = 0; i < n; i++) {
+            // Une prise de licorne gagne tout de suite
+            if (board.captureValue(coups[i]) > 0) return d == 1;
+        }
+        if (d == 1) return false;
+
+        boolean gagnee = (d & 1) != 0;
+        for (int i = 0; i < n; i++) {
+            EscampeMove coup = board.decodeMove(coups[i]);
+            long undo = board.doMove(coup, role);
+            int valeur = valeurs[(int) EscampeTablebase.indice(board, !traitBlanc, k, debuts)] & 0xFF;
+            board.undoMove(coup, role, undo);
+            if (gagnee) {
+                // Un coup vers une position perdue pour l'adversaire en d - 1 suffit
+                if (valeur == d - 1) return true;
+            } else {
+                // Il faut que tous les coups mènent à une position gagnée pour l'adversaire (déjà résolue)
+                if (valeur == 0 || (valeur & 1) == 0 || valeur >= d) return false;
+            }
+        }
+        return !gagnee;
+    }
+
+    /** Écrit la table (en-tête puis valeurs). */
+    public void ecrire(String fichier) throws IOException {
+        byte[] entete = new byte[EscampeTablebase.TAILLE_ENTETE];
+        EscampeTablebase.ecrireEntete(entete, k);
+        try (OutputStream out = new FileOutputStream(fichier)) {
+            out.write(entete);
+            out.write(valeurs);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage : java escampe.EscampeTablebaseGenerateur K fichier [threads]");
+            return;
+        }
+        int k = Integer.parseInt(args[0]);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        EscampeTablebaseGenerateur generateur = new EscampeTablebaseGenerateur(k, threads);
+        System.out.println("Table de finales à " + k + " pièces : " + generateur.valeurs.length + " positions, "
+                + threads + " threads");
+        long debut = System.currentTimeMillis();
+        generateur.generer();
+        generateur.ecrire(args[1]);
+        System.out.println("Écrite dans " + args[1] + " en " + (System.currentTimeMillis() - debut) / 1000 + " s");
+    }
+}
@@ -1,6 +1,20 @@
 package escampe;
 
 import iialib.games.algs.algorithms.AlphaBeta;
+import iialib.games.algs.algorithms.AnytimeAlgorithm;
+import iialib.games.algs.algorithms.MonteCarloTreeSearch;
+import iialib.games.algs.algorithms.SearchLimits;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 // cette classe permet de définir un joueur pour le jeu d'Escampe
 public class MonJoueur implements IJoueur {
@@ -8,12 +22,80 @@ public class MonJoueur implements IJoueur {
     // --- Attributs ---
     private EscampeBoard board;
     private int maCouleurInt;
-    private String maCouleurStr;
+    private String maCouleurStr; // Uniquement pour les appels String de Partie1 (play, possiblesMoves)
+    private EscampeRole monRole;
     private boolean aFaitSonPlacement = false;
 
-    // L'Algorithme d'IA
+    // L'Algorithme d'IA : AlphaBeta, ou MCTS avec -Descampe.algo=mcts
     // <Coup, Role, Plateau>
-    private AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> algo;
+    private AnytimeAlgorithm<EscampeMove, EscampeRole, EscampeBoard> algo;
+    private final boolean monteCarlo;
+
+    // Taille de l'arbre du MCTS (en noeuds, environ 30 octets chacun)
+    private static final int TAILLE_ARBRE_MCTS = 1 << 21;
+
+    // Taille de la table de transposition de l'IA (en Mo)
+    private static final int TAILLE_TABLE_MO = 64;
+
+    // Taille du cache d'évaluation placé devant l'heuristique (en entrées de 16 octets, puissance de deux)
+    private static final int TAILLE_CACHE_EVAL = 1 << 18;
+
+    // Table de finales (EscampeTablebaseGenerateur) consultée par AlphaBeta : fichier donné par
+    // -Descampe.tablebase=chemin, projeté en mémoire une seule fois pour toutes les parties
+    private static EscampeTablebase tableDeFinales;
+    private static boolean tableDeFinalesChargee;
+
+    // Livre d'ouvertures (EscampeOuverturesGenerateur) consulté avant toute recherche : fichier donné par
+    // -Descampe.ouvertures=chemin (ouvertures.bin du répertoire courant par défaut, s'il existe)
+    private static EscampeOuvertures livre;
+    private static boolean livreCharge;
+    private final Random hasard = new Random();
+
+    // Gestion du temps : l'approfondissement itératif s'arrête quand le temps alloué au coup
+    // est écoulé. Chaque coup reçoit une part du temps restant de la partie
+    // (le serveur ne transmet pas la pendule, on la tient donc nous-mêmes)
+    private static final long TEMPS_PARTIE_MS = 5 * 60 * 1000;
+    private static final int COUPS_RESTANTS_ESTIMES = 30;
+    private static final int PROFONDEUR_MAX = 64;
+    private long tempsRestantMs;
+
+    // Nombre de threads de la recherche (Lazy SMP) : un par coeur par défaut,
+    // réglable par la propriété -Descampe.threads=N ou par le constructeur
+    private final int nbThreads;
+
+    // Réflexion sur le temps adverse (pondering) : après notre coup, un thread cherche, sur une copie
+    // du plateau, la position qui suit la réponse adverse attendue (expectedMove : le coup de la table
+    // pour AlphaBeta, le plus visité pour MCTS). Si
+    // l'adversaire la joue, cette recherche continue sur notre temps ; sinon elle est arrêtée.
+    // Le plateau n'est manipulé que par le thread de ClientJeu. Désactivable par -Descampe.ponder=false
+    private final boolean reflexionAdverse;
+    private ExecutorService penseur;
+    private Future<EscampeMove> reflexion; // recherche en cours sur le temps adverse (null si aucune)
+    private EscampeMove coupPrevu;          // réponse adverse supposée par cette recherche
+
+    public MonJoueur() {
+        this(Integer.getInteger("escampe.threads", Runtime.getRuntime().availableProcessors()),
+                !"false".equals(System.getProperty("escampe.ponder")),
+                "mcts".equalsIgnoreCase(System.getProperty("escampe.algo")));
+    }
+
+    public MonJoueur(int nbThreads) {
+        this(nbThreads, true);
+    }
+
+    public MonJoueur(int nbThreads, boolean reflexionAdverse) {
+        this(nbThreads, reflexionAdverse, false);
+    }
+
+    public MonJoueur(int nbThreads, boolean reflexionAdverse, boolean monteCarlo) {
+        this.nbThreads = Math.max(1, nbThreads);
+        this.reflexionAdverse = reflexionAdverse;
+        this.monteCarlo = monteCarlo;
+    }
+
+    // Recherche du placement initial (profondeur 2, 8 placements adverses tirés quand on place en premier)
+    private static final long BUDGET_PLACEMENT_MS = 2000;
+    private final EscampePlacement placement = new EscampePlacement(2, 8);
 
     // --- Initialisation ---
     @Override
@@ -21,17 +103,71 @@ public class MonJoueur implements IJoueur {
         this.maCouleurInt = mycolour;
         this.maCouleurStr = (mycolour == IJoueur.BLANC) ? "blanc" : "noir";
 
+        arreterReflexion();
+        // L'IA de la partie précédente libère ses threads (et sa table avec eux)
+        if (this.algo != null) this.algo.close();
         this.board = new EscampeBoard();
         this.aFaitSonPlacement = false;
+        this.tempsRestantMs = TEMPS_PARTIE_MS;
 
         // Configuration de l'IA
-        EscampeRole monRole = new EscampeRole(this.maCouleurStr);
-        EscampeRole roleAdverse = new EscampeRole((mycolour == IJoueur.BLANC) ? "noir" : "blanc");
+        this.monRole = (mycolour == IJoueur.BLANC) ? EscampeRole.BLANC : EscampeRole.NOIR;
+        EscampeRole roleAdverse = monRole.opponent();
+
+        if (monteCarlo) {
+            // MCTS(RoleJoueur, RoleAdversaire, Simulations hors limite de temps, Taille de l'arbre)
+            System.out.println(">>> Init IA MCTS (" + nbThreads + " threads)...");
+            MonteCarloTreeSearch<EscampeMove, EscampeRole, EscampeBoard> mcts =
+                    new MonteCarloTreeSearch<>(monRole, roleAdverse, 10000, TAILLE_ARBRE_MCTS);
+            mcts.setVerbose(true); // statistiques de chaque coup dans le journal du joueur
+            this.algo = mcts;
+        } else {
+            // Création de l'algo AlphaBeta(RoleJoueur, RoleAdversaire, Heuristique, Profondeur, Table)
+            // La profondeur 4 ne sert qu'aux recherches à profondeur fixe : choixMouvement approfondit
+            // itérativement dans le temps alloué au coup.
+            System.out.println(">>> Init IA AlphaBeta (approfondissement itératif, " + nbThreads + " threads)...");
+            AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> alphaBeta =
+                    new AlphaBeta<>(monRole, roleAdverse,
+                            new EscampeHeuristiqueCache(new EscampeHeuristique(), TAILLE_CACHE_EVAL), 4, TAILLE_TABLE_MO);
+            alphaBeta.setTablebase(tableDeFinales());
+            alphaBeta.setVerbose(true); // statistiques de chaque coup dans le journal du joueur
+            this.algo = alphaBeta;
+        }
+        this.algo.setThreads(nbThreads);
+    }
 
-        // Création de l'algo AlphaBeta(RoleJoueur, RoleAdversaire, Heuristique, Profondeur)
-        // PROFONDEUR : 4 est un bon début pour tester la rapidité.
-        System.out.println(">>> Init IA AlphaBeta (Profondeur 4)...");
-        this.algo = new AlphaBeta<>(monRole, roleAdverse, new EscampeHeuristique(), 4);
+    // La table de finales de -Descampe.tablebase, null si aucune (ou illisible : on joue sans)
+    private static synchronized EscampeTablebase tableDeFinales() {
+        if (!tableDeFinalesChargee) {
+            tableDeFinalesChargee = true;
+            String chemin = System.getProperty("escampe.tablebase");
+            if (chemin != null) {
+                try {
+                    tableDeFinales = EscampeTablebase.ouvrir(Path.of(chemin));
+                    System.out.println(">>> Table de finales à " + tableDeFinales.getNbPieces() + " pièces : " + chemin);
+                } catch (IOException e) {
+                    System.err.println(">>> Table de finales ignorée : " + e.getMessage());
+                }
+            }
+        }
+        return tableDeFinales;
+    }
+
+    // Le livre d'ouvertures, null si aucun (ou illisible : on joue sans)
+    private static synchronized EscampeOuvertures livre() {
+        if (!livreCharge) {
+            livreCharge = true;
+            String chemin = System.getProperty("escampe.ouvertures", "ouvertures.bin");
+            if (Files.exists(Path.of(chemin))) {
+                try {
+                    livre = EscampeOuvertures.ouvrir(Path.of(chemin));
+                    System.out.println(">>> Livre d'ouvertures : " + livre.getNbEntrees() + " coups (" + chemin + ")");
+                } catch (IOException e) {
+                    System.err.println(">>> Livre d'ouvertures ignoré : " + e.getMessage());
+                }
+            }
+        }
+        return livre;
     }
 
     // --- GETTER ---
@@ -50,18 +186,27 @@ public class MonJoueur implements IJoueur {
     // permet de mettre à jour le plateau interne avec le coup joué par l'adversaire
     @Override
     public void mouvementEnnemi(String coup) {
+        // Réflexion sur le temps adverse : on la garde si l'adversaire a joué le coup prévu
+        if (reflexion != null) {
+            EscampeMove joue = EscampeMove.fromString(coup.equals("PASSE") ? "E" : coup);
+            if (joue != null && joue.equals(coupPrevu)) {
+                System.out.println(">>> Coup adverse prévu (" + coup + "), la réflexion continue");
+            } else {
+                arreterReflexion();
+            }
+        }
+
         // Gérer le cas où l'adversaire passe ou erreur
         if (coup.equals("PASSE") || coup.equals("E")) {
             try {
                 // On met à jour le tour dans le plateau interne
-                String couleurAdverse = (this.maCouleurStr.equals("blanc")) ? "noir" : "blanc";
-                this.board.play("E", couleurAdverse);//Mise à jour du plateau
+                this.board.play("E", monRole.opponent().getName());//Mise à jour du plateau
             } catch(Exception e) {}
             return;
         }
 
         System.out.println(">>> Adversaire joue : " + coup);
-        String couleurAdverse = (this.maCouleurStr.equals("blanc")) ? "noir" : "blanc";
+        String couleurAdverse = monRole.opponent().getName();
         try {
             this.board.play(coup, couleurAdverse);//Mise à jour du plateau
         } catch (Exception e) {
@@ -75,11 +220,20 @@ public class MonJoueur implements IJoueur {
     // Retourne le coup à jouer sous forme de String "A1-B2" ou "PASSE"
     @Override
     public String choixMouvement() {
+        long debut = System.currentTimeMillis();
         String coupAJouer = "";
 
+        // Livre d'ouvertures : tant que la position y figure, on joue sans chercher
+        EscampeMove coupDuLivre = (livre() != null) ? livre().coup(this.board, this.monRole, hasard) : null;
+        if (coupDuLivre != null) {
+            arreterReflexion();
+            System.out.println(">>> Coup du livre d'ouvertures");
+            coupAJouer = coupDuLivre.toString();
+            this.aFaitSonPlacement = true;
+        }
         // Phase de Placement
         // L'IA AlphaBeta ne sait pas gérer le placement initial complexe ("A1/B2...")
-        if (!aFaitSonPlacement) {
+        else if (!aFaitSonPlacement) {
             coupAJouer = genererPlacement();
             this.aFaitSonPlacement = true;
         }
@@ -87,8 +241,12 @@ public class MonJoueur implements IJoueur {
         else {
             try {
                 // Appel à l'IA pour trouver le meilleur coup
-                // bestMove renvoie un objet EscampeMove
-                EscampeMove bestMove = this.algo.bestMove(this.board, new EscampeRole(this.maCouleurStr));
+                // bestMove renvoie un objet EscampeMove ; la réflexion sur le temps adverse, si
+                // l'adversaire a joué le coup prévu, a déjà cherché cette position
+                EscampeMove bestMove = (reflexion != null) ? finirReflexion(limitesDuCoup()) : null;
+                if (bestMove == null) {
+                    bestMove = this.algo.bestMove(this.board, this.monRole, limitesDuCoup());
+                }
 
                 if (bestMove != null) {
                     coupAJouer = bestMove.toString(); // Conversion en String "A1-B2"
@@ -111,19 +269,110 @@ public class MonJoueur implements IJoueur {
         // IMPORTANT : On joue le coup sur NOTRE plateau interne
         this.board.play(coupAJouer, this.maCouleurStr);
 
+        this.tempsRestantMs -= System.currentTimeMillis() - debut;
+
+        if (reflexionAdverse && aFaitSonPlacement && !coupAJouer.contains("/")) {
+            lancerReflexion();
+        }
+
         return coupAJouer;
     }
 
     // --- Déclarer le vainqueur ---
     @Override
     public void declareLeVainqueur(int colour) {
+        arreterReflexion();
         System.out.println("Fin. Vainqueur : " + (colour == maCouleurInt ? "NOUS" : "EUX"));
     }
 
+    // --- Helper Temps ---
+    // Limites de la recherche du coup courant : on vise une part du temps restant (limite souple,
+    // pas de nouvelle itération au-delà) sans jamais dépasser le quart du temps restant (limite stricte)
+    private SearchLimits limitesDuCoup() {
+        long restant = Math.max(this.tempsRestantMs, 100);
+        long souple = restant / COUPS_RESTANTS_ESTIMES;
+        long stricte = Math.min(3 * souple, restant / 4);
+        return new SearchLimits()
+                .maxDepth(PROFONDEUR_MAX)
+                .softTimeMs(Math.max(souple, 1))
+                .hardTimeMs(Math.max(stricte, 1));
+    }
+
+    // --- Helpers Réflexion sur le temps adverse ---
+    // Lance la recherche de la position qui suit la réponse adverse attendue, sur une copie du plateau
+    private void lancerReflexion() {
+        if (board.gameOver()) return;
+        EscampeMove prevu = algo.expectedMove(board, monRole.opponent());
+        if (prevu == null) return;
+
+        EscampeBoard copie = board.copy();
+        copie.doMove(prevu, monRole.opponent());
+        if (copie.gameOver()) return;
+
+        if (penseur == null) {
+            penseur = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "MonJoueur-reflexion");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        SearchLimits limites = new SearchLimits().maxDepth(PROFONDEUR_MAX);
+        this.coupPrevu = prevu;
+        this.reflexion = penseur.submit(() -> algo.bestMove(copie, monRole, limites));
+    }
+
+    // Coup prévu joué : la recherche continue jusqu'à la limite souple du coup, puis on l'arrête
+    // (elle renvoie alors le meilleur coup de sa dernière itération terminée, null s'il n'y en a pas)
+    private EscampeMove finirReflexion(SearchLimits limites) {
+        try {
+            EscampeMove coup = reflexion.get(limites.getSoftTimeMs(), TimeUnit.MILLISECONDS);
+            reflexion = null;
+            return coup;
+        } catch (TimeoutException e) {
+            return arreterReflexion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            arreterReflexion();
+            return null;
+        } catch (ExecutionException e) {
+            System.err.println("ERREUR réflexion : " + e.getCause());
+            reflexion = null;
+            return null;
+        }
+    }
+
+    // Arrête la réflexion en cours et attend sa fin, pour que l'IA soit libre.
+    // L'arrêt est répété tant que la recherche n'est pas finie : elle peut ne pas avoir encore démarré.
+    private EscampeMove arreterReflexion() {
+        Future<EscampeMove> enCours = this.reflexion;
+        this.reflexion = null;
+        this.coupPrevu = null;
+        if (enCours == null) return null;
+        while (true) {
+            algo.stop();
+            try {
+                return enCours.get(1, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // pas encore fini : on recommence
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                System.err.println("ERREUR réflexion : " + e.getCause());
+                return null;
+            }
+        }
+    }
+
     // --- Helper Placement ---
-    // Génère une chaîne de placement initial en fonction de la couleur du joueur
+    // Cherche le meilleur placement initial (Blanc connaît déjà celui de Noir)
+    // et se rabat sur un placement fixe si la recherche n'aboutit pas à temps
     private String genererPlacement() {
-        if (this.maCouleurStr.equals("noir")) {
+        EscampeMove meilleur = this.placement.meilleurPlacement(this.board, monRole == EscampeRole.BLANC, BUDGET_PLACEMENT_MS);
+        if (meilleur != null) {
+            return meilleur.toString();
+        }
+        if (monRole == EscampeRole.NOIR) {
             return "C6/A6/B6/D6/E6/F6";
         } else {
             return "C1/A1/B1/D1/E1/F1";
@@ -0,0 +1,167 @@
+package escampe;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Outil "perft" : compte les positions feuilles atteignables en exactement N demi-coups depuis
+ * une position chargée par EscampeBoard.setFromFile. Sert d'oracle pour vérifier (et mesurer)
+ * la génération de coups : toute optimisation de possibleMoves doit laisser ces nombres inchangés.
+ *
+ * Les coups sont joués comme par play : le liseré imposé est suivi, un joueur bloqué passe
+ * (ce qui lève le liseré), et une position où une licorne a été prise n'a plus de coups.
+ *
+ * Usage : java escampe.Perft fichier profondeur [divide] [parallele] [noir] [lisere=N]
+ *   divide    : détaille le compte par coup à la racine
+ *   parallele : répartit les coups de la racine sur un ForkJoinPool
+ *   noir      : c'est Noir qui a le trait (Blanc par défaut)
+ *   lisere=N  : liseré imposé au premier coup (0 par défaut)
+ */
+public class Perft {
+
+    // Un tampon de coups par demi-coup, propre à chaque fil d'exécution
+    private final int[][] tampons;
+
+    public Perft(int profondeur) {
+        this.tampons = new int[Math.max(profondeur, 1)][EscampeBoard.MAX_COUPS];
+    }
+
+    /**
+     * Compte les feuilles à la profondeur donnée (le plateau est restauré à la fin).
+     *
+     * @param board      Position de départ
+     * @param role       Joueur au trait
+     * @param profondeur Nombre de demi-coups
+     */
+    public long perft(EscampeBoard board, EscampeRole role, int profondeur) {
+        return compter(board, role, profondeur, 0);
+    }
+
+    private long compter(EscampeBoard board, EscampeRole role, int profondeur, int ply) {
+        if (profondeur == 0) return 1;
+        if (board.isGameOver()) return 0;
+
+        int[] coups = tampons[ply];
+        int n = board.possibleMoves(role, coups);
+        EscampeRole suivant = role.opponent();
+        if (profondeur == 1) return n;
+
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            EscampeMove move = EscampeMove.of(coups[i]);
+            long undo = board.doMove(move, role);
+            total += compter(board, suivant, profondeur - 1, ply + 1);
+            board.undoMove(move, role, undo);
+        }
+        return total;
+    }
+
+    /**
+     * Détaille le compte par coup à la racine.
+     *
+     * @param parallele Répartit les coups de la racine sur le ForkJoinPool commun
+     * @return le compte de chaque coup, dans l'ordre de coups
+     */
+    public static long[] divide(EscampeBoard board, EscampeRole role, int profondeur, EscampeMove[] coups, boolean parallele) {
+        long[] comptes = new long[coups.length];
+        if (parallele) {
+            Division[] taches = new Division[coups.length];
+            for (int i = 0; i < coups.length; i++) {
+                taches[i] = new Division(board, role, coups[i], profondeur);
+            }
+            ForkJoinPool.commonPool().invoke(new RecursiveTask<Void>() {
+                @Override
+                protected Void compute() {
+                    invokeAll(taches);
+                    return null;
+                }
+            });
+            for (int i = 0; i < coups.length; i++) {
+                comptes[i] = taches[i].join();
+            }
+        } else {
+            Perft perft = new Perft(profondeur);
+            for (int i = 0; i < coups.length; i++) {
+                long undo = board.doMove(coups[i], role);
+                comptes[i] = perft.perft(board, role.opponent(), profondeur - 1);
+                board.undoMove(coups[i], role, undo);
+            }
+        }
+        return comptes;
+    }
+
+    /** Coups de la racine (vide si la partie est finie). */
+    public static EscampeMove[] coupsRacine(EscampeBoard board, EscampeRole role) {
+        if (board.isGameOver()) return new EscampeMove[0];
+        return board.possibleMoves(role).toArray(new EscampeMove[0]);
+    }
+
+    // Tâche fork/join : compte le sous-arbre d'un coup de la racine sur une copie du plateau
+    private static class Division extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final EscampeBoard board;
+        private final EscampeRole role;
+        private final EscampeMove coup;
+        private final int profondeur;
+
+        Division(EscampeBoard board, EscampeRole role, EscampeMove coup, int profondeur) {
+            this.board = new EscampeBoard(board);
+            this.role = role;
+            this.coup = coup;
+            this.profondeur = profondeur;
+        }
+
+        @Override
+        protected Long compute() {
+            board.doMove(coup, role);
+            return new Perft(profondeur).perft(board, role.opponent(), profondeur - 1);
+        }
+    }
+
+    // --- PROGRAMME PRINCIPAL ---
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Perft Usage: fichier profondeur [divide] [parallele] [noir] [lisere=N]");
+            System.exit(1);
+        }
+
+        String fichier = args[0];
+        int profondeur = Integer.parseInt(args[1]);
+        boolean detail = false, parallele = false;
+        EscampeRole role = EscampeRole.BLANC;
+        int lisere = 0;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("divide")) detail = true;
+            else if (args[i].equals("parallele")) parallele = true;
+            else if (args[i].equals("noir")) role = EscampeRole.NOIR;
+            else if (args[i].startsWith("lisere=")) lisere = Integer.parseInt(args[i].substring(7));
+        }
+
+        EscampeBoard board = new EscampeBoard();
+        board.setFromFile(fichier);
+        board.setLisereCourant(lisere);
+        board.setJoueurCourant(role.index);
+        board.printBoard();
+        System.out.println("Trait : " + role + ", liseré imposé : " + lisere + ", profondeur : " + profondeur);
+
+        long debut = System.nanoTime();
+        long total;
+        if (profondeur == 0) {
+            total = 1;
+        } else {
+            EscampeMove[] coups = coupsRacine(board, role);
+            long[] comptes = divide(board, role, profondeur, coups, parallele);
+            total = 0;
+            for (int i = 0; i < coups.length; i++) {
+                if (detail) System.out.println(coups[i] + " : " + comptes[i]);
+                total += comptes[i];
+            }
+        }
+        long duree = System.nanoTime() - debut;
+
+        System.out.println("Feuilles : " + total);
+        System.out.println("Temps : " + duree / 1_000_000 + " ms");
+        System.out.println("Feuilles/s : " + (duree == 0 ? 0 : total * 1_000_000_000L / duree));
+    }
+}
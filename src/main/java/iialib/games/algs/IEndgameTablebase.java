@@ -0,0 +1,23 @@
+package iialib.games.algs;
+
+import iialib.games.model.IBoard;
+import iialib.games.model.IRole;
+
+/**
+ * Exact values of the positions with few pieces (typically read from an endgame tablebase file).
+ */
+public interface IEndgameTablebase<Board extends IBoard<?,Role, Board>,Role extends IRole> {
+
+	/** Returned for the positions the tablebase does not cover
+	 */
+	public static int UNKNOWN = Integer.MIN_VALUE;
+
+	/**
+	 * @param board
+	 * @param role the player to move
+	 * @return the number of plies to the end of the game with perfect play, positive if role wins,
+	 * negative if it loses, 0 for a draw, or UNKNOWN
+	 */
+	int probe(Board board, Role role);
+
+}
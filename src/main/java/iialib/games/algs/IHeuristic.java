@@ -10,6 +10,11 @@ public interface IHeuristic<Board extends IBoard<?,Role, Board>,Role extends IRo
 	
 	public static int MIN_VALUE = java.lang.Integer.MIN_VALUE;
 	public static int MAX_VALUE = java.lang.Integer.MAX_VALUE;
+
+	/** Value of a won game for the searching player; a win reached at depth d is worth
+	 * WIN_VALUE - d, a loss -(WIN_VALUE - d). Heuristic values must stay well below it.
+	 */
+	public static int WIN_VALUE = 1000000;
 		
 	int eval(Board board,Role role);
 
@@ -1,30 +1,39 @@
 package iialib.games.algs.algorithms;
 
-import iialib.games.algs.GameAlgorithm;
+import iialib.games.algs.IEndgameTablebase;
 import iialib.games.algs.IHeuristic;
 import iialib.games.model.IBoard;
 import iialib.games.model.IMove;
 import iialib.games.model.IRole;
+import iialib.games.model.Score;
 
-public class AlphaBeta<Move extends IMove,Role extends IRole,Board extends IBoard<Move,Role,Board>> implements GameAlgorithm<Move,Role,Board> {
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class AlphaBeta<Move extends IMove,Role extends IRole,Board extends IBoard<Move,Role,Board>> implements AnytimeAlgorithm<Move,Role,Board> {
 
     // Constants
     /** Defaut value for depth limit
      */
     private int depthMax;
 
-    /** number of internal visited (developed) nodes (for stats)
+    /** number of internal visited (developed) nodes, summed over the threads (for stats)
      */
-    private int nbNodes;
+    private long nbNodes;
 
     /** Heuristic used by the max player
      */
     private IHeuristic<Board, Role> h;
 
-    /** number of leaves nodes nodes (for stats)
+    /** number of leaves nodes nodes, summed over the threads (for stats)
 
      */
-    private int nbLeaves;
+    private long nbLeaves;
 
     // Attributes
     /** Role of the max player
@@ -35,72 +44,834 @@ public class AlphaBeta<Move extends IMove,Role extends IRole,Board extends IBoar
      */
     private final Role playerMinRole;
 
+    /** Transposition table (null if none), used on boards supporting both undo and hash
+     */
+    private final TranspositionTable table;
+
+    /** number of nodes cut by a transposition table score, summed over the threads (for stats)
+     */
+    private long nbTableCutoffs;
+
+    /** Depth of the last completed iteration
+     */
+    private int completedDepth;
+
+    /** Limits of the running search (see SearchLimits): the main thread stops the search when
+     * its node count reaches maxNodes or System.nanoTime() reaches hardDeadline
+     */
+    private long maxNodes = Long.MAX_VALUE;
+    private long hardDeadline = Long.MAX_VALUE;
+    private volatile boolean stop;
+
+    /** The limits are checked every CHECK_INTERVAL + 1 nodes
+     */
+    private static final int CHECK_INTERVAL = 1023;
+
+    /** Lazy SMP: the main thread searches with the calling thread, nbThreads - 1 helpers search
+     * the same root on their own copy of the board, sharing the transposition table only
+     */
+    private int nbThreads = 1;
+    private final Worker main = new Worker(0);
+    private final List<Worker> helpers = new ArrayList<>();
+    private ExecutorService helperPool;
+
+    /** Quiescence search: at the horizon, captures (IBoard.captureMoves) are searched until the
+     * position is quiet, at most QUIESCENCE_PLIES plies, instead of evaluating a position where a
+     * capture is pending
+     */
+    private boolean quiescence = true;
+    private static final int QUIESCENCE_PLIES = 4;
+
+    /** Threat extensions: a node whose player to move is threatened (IBoard.isThreatened) is
+     * searched one ply deeper, at most extensionBudget times along a path
+     */
+    private int extensionBudget = 2;
+
+    /** number of quiescence nodes and of extended nodes, summed over the threads (for stats)
+     */
+    private long nbQuiescenceNodes;
+    private long nbExtensions;
+
+    /** Selective pruning, each part switchable:
+     * - null move: the player to move passes (IBoard.nullMove) and the opponent's reply is searched
+     *   NULL_MOVE_REDUCTION plies shallower; if it still fails, the node is cut
+     * - late move reductions: quiet moves after the first LMR_MIN_MOVES are searched one ply
+     *   shallower with a null window first, and again in full when they beat the bound
+     * - futility pruning: one ply before the horizon, quiet moves are skipped when the node's static
+     *   evaluation plus futilityMargin (in heuristic units) cannot reach the window
+     * None of them applies to a threatened player, nor to captures.
+     */
+    private boolean nullMovePruning = true;
+    private boolean lateMoveReductions = true;
+    private boolean futilityPruning = true;
+    private int futilityMargin = 4;
+    private static final int NULL_MOVE_REDUCTION = 2;
+    private static final int LMR_MIN_MOVES = 3;
+    private static final int LMR_MIN_DEPTH = 3;
+
+    /** number of null move cutoffs, of reduced searches and of their full re-searches, and of moves
+     * skipped by futility pruning, summed over the threads (for stats)
+     */
+    private long nbNullCutoffs;
+    private long nbReductions;
+    private long nbResearches;
+    private long nbFutilityPruned;
+
+    /** Endgame tablebase probed at every node below the root, null for none: the positions it knows
+     * get their exact value without being searched
+     */
+    private IEndgameTablebase<Board, Role> tablebase;
+
+    /** number of nodes valued by the tablebase, summed over the threads (for stats)
+     */
+    private long nbTablebaseHits;
+
+    /** number of cutoffs, and of those given by the first move searched, summed over the threads
+     */
+    private long nbCutoffs;
+    private long nbFirstMoveCutoffs;
+
+    /** Statistics of the last bestMove, and nodes of each iteration of the running one (main thread)
+     */
+    private SearchStats lastStats;
+    private long[] iterationNodes = new long[0];
+
+    /** Prints the stats of each bestMove on the console (off by default)
+     */
+    private boolean verbose;
+
     public AlphaBeta(Role playerMaxRole, Role playerMinRole, IHeuristic<Board, Role> h, int depthMax) {
+        this(playerMaxRole, playerMinRole, h, depthMax, 0);
+    }
+
+    /**
+     * @param tableSizeMb size of the transposition table in megabytes, 0 for no table
+     */
+    public AlphaBeta(Role playerMaxRole, Role playerMinRole, IHeuristic<Board, Role> h, int depthMax, int tableSizeMb) {
         this.h = h;
         this.playerMaxRole = playerMaxRole;
         this.playerMinRole = playerMinRole;
         this.depthMax = depthMax;
+        this.table = tableSizeMb > 0 ? new TranspositionTable(tableSizeMb) : null;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /** Number of threads of the iterative deepening searches (Lazy SMP).
+     * Helpers need a transposition table and a board supporting undo and copy;
+     * the heuristic is then called from several threads at once.
+     */
+    @Override
+    public void setThreads(int nbThreads) {
+        if (nbThreads == this.nbThreads) return;
+        shutdownHelpers();
+        this.nbThreads = Math.max(1, nbThreads);
+        helpers.clear();
+        for (int i = 1; i < this.nbThreads; i++) {
+            helpers.add(new Worker(i));
+        }
+    }
+
+    public int getThreads() {
+        return nbThreads;
+    }
+
+    /** Stops the running search and the helper threads (they are started again by the next search)
+     */
+    @Override
+    public void close() {
+        this.stop = true;
+        shutdownHelpers();
+    }
+
+    private void shutdownHelpers() {
+        if (helperPool != null) {
+            helperPool.shutdown();
+            helperPool = null;
+        }
+    }
+
+    public void setQuiescence(boolean quiescence) {
+        this.quiescence = quiescence;
+    }
+
+    public void setNullMovePruning(boolean nullMovePruning) {
+        this.nullMovePruning = nullMovePruning;
+    }
+
+    public void setLateMoveReductions(boolean lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
+
+    public void setFutilityPruning(boolean futilityPruning) {
+        this.futilityPruning = futilityPruning;
+    }
+
+    /** Largest gain (in heuristic units) a single quiet move is assumed to make
+     */
+    public void setFutilityMargin(int futilityMargin) {
+        this.futilityMargin = futilityMargin;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /** Maximum number of threat extensions along a path (0 disables them)
+     */
+    public void setExtensionBudget(int extensionBudget) {
+        this.extensionBudget = Math.max(0, extensionBudget);
+    }
+
+    /** Endgame tablebase to probe (null for none); it is read from all the search threads
+     */
+    public void setTablebase(IEndgameTablebase<Board, Role> tablebase) {
+        this.tablebase = tablebase;
     }
 
     @Override
     public Move bestMove(Board board, Role playerRole) {
-        this.nbNodes = 0;
-        this.nbLeaves = 0;
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        this.stop = false;
+        if (table != null) table.newSearch();
+        main.startSearch(board, depthMax);
+        main.depthMax = depthMax;
+        Move bestMove = main.searchRoot(board, playerRole, null);
+        collectStats(main);
+        this.iterationNodes = new long[depthMax + 1];
+        this.iterationNodes[depthMax] = main.nbNodes;
+        recordStats(depthMax, start, event, bestMove);
+        if (verbose) System.out.println(lastStats);
+        return bestMove;
+    }
+
+    /** Iterative deepening: searches to depth 1, 2, ... until a limit is reached, each iteration
+     * trying the best move of the previous one first. With several threads, the helpers search
+     * alongside until the main thread is done; only the main thread's move is returned.
+     * @return the best move of the last completed iteration (the first legal move if none completed)
+     */
+    @Override
+    public Move bestMove(Board board, Role playerRole, SearchLimits limits) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long softDeadline = limits.getSoftTimeMs() > 0 ? start + limits.getSoftTimeMs() * 1_000_000 : Long.MAX_VALUE;
+        this.hardDeadline = limits.getHardTimeMs() > 0 ? start + limits.getHardTimeMs() * 1_000_000 : Long.MAX_VALUE;
+        this.maxNodes = limits.getMaxNodes();
+        this.stop = false;
+        if (table != null) table.newSearch();
+        main.startSearch(board, limits.getMaxDepth());
+        List<Future<?>> running = startHelpers(board, playerRole, limits.getMaxDepth());
+
         Move bestMove = null;
-        int bestValue = IHeuristic.MIN_VALUE;
-        for (Move move : board.possibleMoves(playerRole)) {
-            Board nextBoard = board.play(move, playerRole);
-            // After making a move for playerRole, the next level is the opponent (minimizer if we are maximizing)
-            // We start recursion at depth=1 and indicate that the next node is a minimizing node
-            int moveValue = alphaBeta(nextBoard, 1, IHeuristic.MIN_VALUE, IHeuristic.MAX_VALUE, false);
-            if (moveValue > bestValue) {
-                bestValue = moveValue;
+        this.completedDepth = 0;
+        this.iterationNodes = new long[limits.getMaxDepth() + 1];
+        try {
+            for (int depth = 1; depth <= limits.getMaxDepth(); depth++) {
+                SearchIterationEvent iteration = new SearchIterationEvent();
+                iteration.begin();
+                long nodesBefore = main.nbNodes;
+                main.depthMax = depth;
+                Move move = main.searchRoot(board, playerRole, bestMove);
+                iteration.end();
+                if (iteration.shouldCommit()) {
+                    iteration.depth = depth;
+                    iteration.nodes = main.nbNodes - nodesBefore;
+                    iteration.score = main.rootValue;
+                    iteration.completed = !this.stop;
+                    iteration.bestMove = String.valueOf(move);
+                    iteration.commit();
+                }
+                if (this.stop) break; // the unfinished iteration is discarded
+                this.iterationNodes[depth] = main.nbNodes - nodesBefore;
                 bestMove = move;
+                this.completedDepth = depth;
+                if (limits.stopsOnForcedWin() && main.rootValue >= TranspositionTable.MATE_BOUND) break;
+                if (main.nbNodes >= limits.getMaxNodes() || System.nanoTime() >= softDeadline) break;
             }
+        } finally {
+            this.stop = true;
+            this.maxNodes = Long.MAX_VALUE;
+            this.hardDeadline = Long.MAX_VALUE;
+            awaitHelpers(running);
         }
 
-        System.out.println("Nombre de noeuds internes visités : " + this.nbNodes);
-        System.out.println("Nombre de feuilles évaluées : " + this.nbLeaves);
+        if (bestMove == null) {
+            List<Move> moves = board.possibleMoves(playerRole);
+            if (!moves.isEmpty()) bestMove = moves.get(0);
+        }
+        collectStats(main);
+        for (int i = 0; i < running.size(); i++) {
+            addStats(helpers.get(i));
+        }
+        recordStats(this.completedDepth, start, event, bestMove);
+        lastStats.counter("threads", running.size() + 1);
+        if (verbose) System.out.println(lastStats);
         return bestMove;
     }
 
-    private int alphaBeta(Board board, int depth, int alpha, int beta, Boolean isMaximizingPlayer) {
-        this.nbNodes++;
+    /** Stops the running search from another thread (e.g. a ponder search): bestMove(board, role, limits)
+     * then returns the best move of its last completed iteration. A search starting after the call
+     * is not affected.
+     */
+    @Override
+    public void stop() {
+        this.stop = true;
+    }
+
+    /** The best move stored in the transposition table for board, if it is legal for playerRole
+     */
+    @Override
+    public Move expectedMove(Board board, Role playerRole) {
+        if (table == null || !board.supportsUndo() || !board.supportsHash()) return null;
+        long entry = table.probe(board.getHash());
+        if (entry == 0L) return null;
+        int code = TranspositionTable.move(entry);
+        int[] moves = new int[board.maxPossibleMoves()];
+        int nbMoves = board.possibleMoves(playerRole, moves);
+        for (int i = 0; i < nbMoves; i++) {
+            if (moves[i] == code) return board.decodeMove(code);
+        }
+        return null;
+    }
+
+    /** Depth of the last completed iteration of bestMove(board, role, limits)
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
 
-        // Determine current role based on whether this node is maximizing or minimizing
-        Role currentRole = isMaximizingPlayer ? playerMaxRole : playerMinRole;
+    /** Nodes visited by the last search, summed over the threads
+     */
+    public long getNbNodes() {
+        return nbNodes;
+    }
 
-        if (board.isGameOver() || depth >= this.depthMax) {
-            this.nbLeaves++;
-            // Evaluate from the point of view of the MAX player for consistency with MiniMax
-            return h.eval(board, playerMaxRole);
-        }
-
-        if (isMaximizingPlayer) {
-            int bestVal = IHeuristic.MIN_VALUE;
-            for (Move move : board.possibleMoves(currentRole)) {
-                Board nextBoard = board.play(move, currentRole);
-                // Next level will be minimizing
-                int value = alphaBeta(nextBoard, depth + 1, alpha, beta, false);
-                bestVal = Math.max(bestVal, value);
-                alpha = Math.max(alpha, bestVal);
-                if (beta <= alpha) {
-                    break; // Beta cut-off
+    /** Statistics of the last bestMove (null before the first one)
+     */
+    public SearchStats getLastStats() {
+        return lastStats;
+    }
+
+    /** Builds the statistics of the search started at start, and ends its event
+     */
+    private void recordStats(int depth, long start, SearchEvent event, Move bestMove) {
+        this.lastStats = new SearchStats("AlphaBeta", depth, nbNodes, nbLeaves, System.nanoTime() - start,
+                nbCutoffs, nbFirstMoveCutoffs, table == null ? 0 : table.getProbes(),
+                table == null ? 0 : table.getHits(), iterationNodes)
+                .counter("tableCutoffs", nbTableCutoffs)
+                .counter("quiescenceNodes", nbQuiescenceNodes)
+                .counter("extensions", nbExtensions)
+                .counter("nullMoveCutoffs", nbNullCutoffs)
+                .counter("reductions", nbReductions)
+                .counter("researches", nbResearches)
+                .counter("futilityPruned", nbFutilityPruned)
+                .counter("tablebaseHits", nbTablebaseHits);
+        event.end();
+        event.commit(lastStats, bestMove);
+    }
+
+    /** Starts the helpers on copies of board (none if the search cannot be shared)
+     */
+    private List<Future<?>> startHelpers(Board board, Role playerRole, int maxDepth) {
+        List<Future<?>> running = new ArrayList<>(helpers.size());
+        if (helpers.isEmpty() || table == null || !board.supportsUndo() || !board.supportsHash()) {
+            return running;
+        }
+        if (helperPool == null) {
+            helperPool = Executors.newFixedThreadPool(helpers.size(), r -> {
+                Thread t = new Thread(r, "AlphaBeta-helper");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        for (Worker helper : helpers) {
+            Board copy = board.copy();
+            running.add(helperPool.submit(() -> helper.iterate(copy, playerRole, maxDepth)));
+        }
+        return running;
+    }
+
+    private void awaitHelpers(List<Future<?>> running) {
+        for (Future<?> f : running) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("AlphaBeta helper failed", e.getCause());
+            }
+        }
+    }
+
+    private void collectStats(Worker worker) {
+        this.nbNodes = 0;
+        this.nbLeaves = 0;
+        this.nbTableCutoffs = 0;
+        this.nbQuiescenceNodes = 0;
+        this.nbExtensions = 0;
+        this.nbNullCutoffs = 0;
+        this.nbReductions = 0;
+        this.nbResearches = 0;
+        this.nbFutilityPruned = 0;
+        this.nbTablebaseHits = 0;
+        this.nbCutoffs = 0;
+        this.nbFirstMoveCutoffs = 0;
+        addStats(worker);
+    }
+
+    private void addStats(Worker worker) {
+        this.nbNodes += worker.nbNodes;
+        this.nbLeaves += worker.nbLeaves;
+        this.nbTableCutoffs += worker.nbTableCutoffs;
+        this.nbQuiescenceNodes += worker.nbQuiescenceNodes;
+        this.nbExtensions += worker.nbExtensions;
+        this.nbNullCutoffs += worker.nbNullCutoffs;
+        this.nbReductions += worker.nbReductions;
+        this.nbResearches += worker.nbResearches;
+        this.nbFutilityPruned += worker.nbFutilityPruned;
+        this.nbTablebaseHits += worker.nbTablebaseHits;
+        this.nbCutoffs += worker.nbCutoffs;
+        this.nbFirstMoveCutoffs += worker.nbFirstMoveCutoffs;
+    }
+
+    /** Value of board for the MAX player, playerRole being the player to move.
+     * Searched to depthMax like bestMove, without recording stats.
+     */
+    public int evaluate(Board board, Role playerRole) {
+        this.stop = false;
+        if (board.supportsUndo()) main.allocateBuffers(board, depthMax);
+        main.depthMax = depthMax;
+        return main.alphaBeta(board, 0, IHeuristic.MIN_VALUE, IHeuristic.MAX_VALUE, playerRole.equals(playerMaxRole),
+                depthMax, extensionBudget, true);
+    }
+
+    /** True if bound is a heuristic value (not a win or loss score, nor an infinite bound)
+     */
+    private static boolean notMate(int bound) {
+        return bound > -TranspositionTable.MATE_BOUND && bound < TranspositionTable.MATE_BOUND;
+    }
+
+    /** Value of a finished game for the MAX player, using the board scores: the sooner
+     * a win (the later a loss), the better. Boards giving no score are evaluated by h.
+     */
+    private int terminalValue(Board board, int depth) {
+        for (Score<Role> score : board.getScores()) {
+            if (!score.getRole().equals(playerMaxRole)) continue;
+            switch (score.getStatus()) {
+                case WIN:
+                    return IHeuristic.WIN_VALUE - depth;
+                case LOOSE:
+                    return -(IHeuristic.WIN_VALUE - depth);
+                default:
+                    return 0;
+            }
+        }
+        return h.eval(board, playerMaxRole);
+    }
+
+    /** Value for the MAX player of a tablebase result (plies to the end of the game, for role to move)
+     * found at depth, scored like terminalValue would score the end of the game
+     */
+    private int tablebaseValue(int plies, Role role, int depth) {
+        if (plies == 0) return 0;
+        int value = plies > 0 ? IHeuristic.WIN_VALUE - (depth + plies) : -(IHeuristic.WIN_VALUE - (depth - plies));
+        return role.equals(playerMaxRole) ? value : -value;
+    }
+
+    /** State of one search thread: its depth, move buffers, move ordering and counters
+     */
+    private final class Worker {
+
+        /** 0 for the main thread, 1.. for the helpers
+         */
+        private final int id;
+
+        /** Depth of the running iteration
+         */
+        private int depthMax;
+
+        /** Move buffers, one per ply (in-place search only)
+         */
+        private int[][] moveBuffers;
+
+        /** Killer and history tables ordering the moves of the buffers (in-place search only)
+         */
+        private MoveOrdering ordering;
+
+        private long nbNodes;
+        private long nbLeaves;
+        private long nbTableCutoffs;
+        private long nbQuiescenceNodes;
+        private long nbExtensions;
+        private long nbNullCutoffs;
+        private long nbReductions;
+        private long nbResearches;
+        private long nbFutilityPruned;
+        private long nbTablebaseHits;
+        private long nbCutoffs;
+        private long nbFirstMoveCutoffs;
+
+        /** Value of the last root search
+         */
+        private int rootValue;
+
+        Worker(int id) {
+            this.id = id;
+        }
+
+        /** Resets the counters of a new search, buffers being sized for maxDepth plies
+         */
+        void startSearch(Board board, int maxDepth) {
+            this.nbNodes = 0;
+            this.nbLeaves = 0;
+            this.nbTableCutoffs = 0;
+            this.nbQuiescenceNodes = 0;
+            this.nbExtensions = 0;
+            this.nbNullCutoffs = 0;
+            this.nbReductions = 0;
+            this.nbResearches = 0;
+            this.nbFutilityPruned = 0;
+            this.nbTablebaseHits = 0;
+            this.nbCutoffs = 0;
+            this.nbFirstMoveCutoffs = 0;
+            if (board.supportsUndo()) {
+                allocateBuffers(board, maxDepth);
+                ordering.newSearch();
+            }
+        }
+
+        /** Helper loop: deepens until the main thread stops the search. Odd helpers search one
+         * ply ahead of even ones, so that the threads do not all work on the same depth.
+         */
+        void iterate(Board board, Role playerRole, int maxDepth) {
+            startSearch(board, maxDepth);
+            for (int depth = 1 + (id & 1); depth <= maxDepth && !stop; depth++) {
+                this.depthMax = depth;
+                searchRoot(board, playerRole, null);
+            }
+        }
+
+        /** Allocates the per-ply move buffers once (reused by later searches of the same size),
+         * with room for the extensions and the quiescence plies beyond maxDepth
+         */
+        void allocateBuffers(Board board, int maxDepth) {
+            int size = board.maxPossibleMoves();
+            int plies = maxDepth + extensionBudget + QUIESCENCE_PLIES + 1;
+            if (moveBuffers == null || moveBuffers.length < plies || moveBuffers[0].length < size) {
+                moveBuffers = new int[plies][size];
+            }
+            if (ordering == null) ordering = new MoveOrdering(plies, size);
+            else ordering.ensureCapacity(plies, size);
+        }
+
+        /** Searches the root to depthMax, trying firstMove (if not null) first.
+         * Sets rootValue; the result is meaningless if the search was stopped.
+         */
+        Move searchRoot(Board board, Role playerRole, Move firstMove) {
+            Move bestMove = null;
+            int bestValue = IHeuristic.MIN_VALUE;
+            int bestCode = TranspositionTable.NO_MOVE;
+            // Boards supporting doMove/undoMove are searched in place (no copy per edge),
+            // their moves being generated as ints into the per-ply buffers
+            boolean inPlace = board.supportsUndo();
+            boolean useTable = inPlace && table != null && board.supportsHash();
+            int[] buffer = inPlace ? moveBuffers[0] : null;
+            List<Move> moves = inPlace ? null : board.possibleMoves(playerRole);
+            int nbMoves = inPlace ? board.possibleMoves(playerRole, buffer) : moves.size();
+            // The best move of the previous iteration is tried first, else the one found best
+            // by a previous search of this position
+            int hashMove = TranspositionTable.NO_MOVE;
+            if (useTable) {
+                long entry = table.probe(board.getHash());
+                if (entry != 0L) hashMove = TranspositionTable.move(entry);
+            }
+            if (firstMove != null) {
+                for (int i = 0; i < nbMoves; i++) {
+                    if (inPlace ? board.decodeMove(buffer[i]).equals(firstMove) : moves.get(i).equals(firstMove)) {
+                        if (inPlace) hashMove = buffer[i];
+                        else Collections.swap(moves, 0, i);
+                        break;
+                    }
+                }
+            }
+            if (inPlace) ordering.score(board, buffer, nbMoves, 0, 0, hashMove);
+            for (int i = 0; i < nbMoves; i++) {
+                Move move = inPlace ? board.decodeMove(ordering.next(buffer, nbMoves, i, 0)) : moves.get(i);
+                Board nextBoard = inPlace ? board : board.play(move, playerRole);
+                long undo = inPlace ? board.doMove(move, playerRole) : 0L;
+                // After making a move for playerRole, the next level is the opponent (minimizer if we are maximizing)
+                // We start recursion at depth=1 and indicate that the next node is a minimizing node.
+                // Only a better move matters: the best value so far is the lower bound of the window
+                int moveValue = alphaBeta(nextBoard, 1, bestValue, IHeuristic.MAX_VALUE, false, depthMax, extensionBudget, true);
+                if (inPlace) board.undoMove(move, playerRole, undo);
+                if (stop) return bestMove;
+                if (moveValue > bestValue) {
+                    bestValue = moveValue;
+                    bestMove = move;
+                    if (inPlace) bestCode = buffer[i];
+                }
+            }
+            if (useTable && nbMoves > 0) {
+                table.store(board.getHash(), depthMax, TranspositionTable.EXACT,
+                        TranspositionTable.scoreToTable(bestValue, 0), bestCode);
+            }
+            this.rootValue = bestValue;
+            return bestMove;
+        }
+
+        /** Counts a cutoff caused by the moveIndex-th move searched
+         */
+        private void countCutoff(int moveIndex) {
+            this.nbCutoffs++;
+            if (moveIndex == 0) this.nbFirstMoveCutoffs++;
+        }
+
+        /** Updates the killers and the history with a move that caused a cutoff
+         * @param remaining remaining depth of the node
+         */
+        private void recordCutoff(Board board, int code, int depth, int remaining, int side) {
+            ordering.cutoff(code, depth, side, remaining, board.captureValue(code) == 0);
+        }
+
+        /**
+         * @param horizon        depth at which the node's subtree is evaluated (depthMax plus the extensions
+         *                       of the path, minus its reductions)
+         * @param extensionsLeft threat extensions still allowed along the path
+         * @param nullAllowed    false just after a null move (no two passes in a row)
+         */
+        int alphaBeta(Board board, int depth, int alpha, int beta, boolean isMaximizingPlayer,
+                      int horizon, int extensionsLeft, boolean nullAllowed) {
+            this.nbNodes++;
+            if (id == 0 && (this.nbNodes & CHECK_INTERVAL) == 0
+                    && (this.nbNodes >= maxNodes || System.nanoTime() >= hardDeadline)) {
+                stop = true;
+            }
+            if (stop) return 0; // the callers unwind without using the value
+
+            // Determine current role based on whether this node is maximizing or minimizing
+            Role currentRole = isMaximizingPlayer ? playerMaxRole : playerMinRole;
+
+            if (board.isGameOver()) {
+                this.nbLeaves++;
+                return terminalValue(board, depth);
+            }
+
+            // The root still needs its move: the tablebase only values the nodes below it
+            if (tablebase != null && depth > 0) {
+                int plies = tablebase.probe(board, currentRole);
+                if (plies != IEndgameTablebase.UNKNOWN) {
+                    this.nbTablebaseHits++;
+                    return tablebaseValue(plies, currentRole, depth);
                 }
             }
+
+            // A threatened player gets one more ply to answer the threat, so that the horizon does
+            // not fall between the threat and its execution
+            boolean threatened = board.isThreatened(currentRole);
+            if (threatened && extensionsLeft > 0) {
+                horizon++;
+                extensionsLeft--;
+                this.nbExtensions++;
+            }
+
+            if (depth >= horizon) {
+                return quiescence(board, depth, alpha, beta, isMaximizingPlayer, 0);
+            }
+
+            // No game can be won below this node sooner than at depth + 1: once the window lies beyond
+            // that value, the node cannot change the result (mate distance pruning)
+            int quickestWin = IHeuristic.WIN_VALUE - depth - 1;
+            if (alpha >= quickestWin) return quickestWin;
+            if (beta <= -quickestWin) return -quickestWin;
+
+            boolean inPlace = board.supportsUndo();
+            boolean useTable = inPlace && table != null && board.supportsHash();
+            int remaining = horizon - depth;
+            long key = 0L;
+            int hashMove = TranspositionTable.NO_MOVE;
+            if (useTable) {
+                key = board.getHash();
+                long entry = table.probe(key);
+                if (entry != 0L) {
+                    // A search at least as deep gives the value directly when its bound allows it
+                    if (TranspositionTable.depth(entry) >= remaining) {
+                        int value = TranspositionTable.scoreFromTable(TranspositionTable.score(entry), depth);
+                        int bound = TranspositionTable.bound(entry);
+                        if (bound == TranspositionTable.EXACT
+                                || (bound == TranspositionTable.LOWER && value >= beta)
+                                || (bound == TranspositionTable.UPPER && value <= alpha)) {
+                            this.nbTableCutoffs++;
+                            return value;
+                        }
+                    }
+                    hashMove = TranspositionTable.move(entry);
+                }
+            }
+
+            // Null move: if the opponent, moving twice in a row, still cannot bring the value back
+            // inside the window, a real move would not either (a threatened player cannot pass)
+            if (nullMovePruning && nullAllowed && inPlace && !threatened && remaining > NULL_MOVE_REDUCTION
+                    && board.nullMove() >= 0 && notMate(isMaximizingPlayer ? beta : alpha)) {
+                Move pass = board.decodeMove(board.nullMove());
+                long undo = board.doMove(pass, currentRole);
+                int value = isMaximizingPlayer
+                        ? alphaBeta(board, depth + 1, beta - 1, beta, false, horizon - NULL_MOVE_REDUCTION, extensionsLeft, false)
+                        : alphaBeta(board, depth + 1, alpha, alpha + 1, true, horizon - NULL_MOVE_REDUCTION, extensionsLeft, false);
+                board.undoMove(pass, currentRole, undo);
+                if (stop) return 0;
+                if (isMaximizingPlayer ? value >= beta : value <= alpha) {
+                    this.nbNullCutoffs++;
+                    return isMaximizingPlayer ? beta : alpha;
+                }
+            }
+
+            // Futility: one ply before the horizon, quiet moves are skipped when the static evaluation
+            // of the node, give or take futilityMargin, cannot reach the window
+            int futilityValue = 0;
+            boolean futile = false;
+            if (futilityPruning && inPlace && remaining == 1 && !threatened && notMate(alpha) && notMate(beta)) {
+                int staticEval = h.eval(board, playerMaxRole);
+                futilityValue = isMaximizingPlayer ? staticEval + futilityMargin : staticEval - futilityMargin;
+                futile = isMaximizingPlayer ? futilityValue <= alpha : futilityValue >= beta;
+            }
+
+            int alphaOrig = alpha;
+            int betaOrig = beta;
+            int bestCode = TranspositionTable.NO_MOVE;
+            int[] buffer = inPlace ? moveBuffers[depth] : null;
+            List<Move> moves = inPlace ? null : board.possibleMoves(currentRole);
+            int nbMoves = inPlace ? board.possibleMoves(currentRole, buffer) : moves.size();
+            int side = isMaximizingPlayer ? 0 : 1;
+            if (inPlace) ordering.score(board, buffer, nbMoves, depth, side, hashMove);
+            boolean reducible = lateMoveReductions && inPlace && !threatened && remaining >= LMR_MIN_DEPTH;
+            int bestVal;
+            if (isMaximizingPlayer) {
+                bestVal = IHeuristic.MIN_VALUE;
+                for (int i = 0; i < nbMoves; i++) {
+                    Move move = inPlace ? board.decodeMove(ordering.next(buffer, nbMoves, i, depth)) : moves.get(i);
+                    boolean quiet = inPlace && buffer[i] != hashMove && board.captureValue(buffer[i]) == 0;
+                    if (futile && quiet) {
+                        this.nbFutilityPruned++;
+                        bestVal = Math.max(bestVal, futilityValue);
+                        continue;
+                    }
+                    Board nextBoard = inPlace ? board : board.play(move, currentRole);
+                    long undo = inPlace ? board.doMove(move, currentRole) : 0L;
+                    // Next level will be minimizing
+                    int value;
+                    if (reducible && quiet && i >= LMR_MIN_MOVES) {
+                        // Late quiet move: one ply shallower with a null window, again in full if it beats alpha
+                        this.nbReductions++;
+                        value = alphaBeta(nextBoard, depth + 1, alpha, alpha + 1, false, horizon - 1, extensionsLeft, true);
+                        if (value > alpha && !stop) {
+                            this.nbResearches++;
+                            value = alphaBeta(nextBoard, depth + 1, alpha, beta, false, horizon, extensionsLeft, true);
+                        }
+                    } else {
+                        value = alphaBeta(nextBoard, depth + 1, alpha, beta, false, horizon, extensionsLeft, true);
+                    }
+                    if (inPlace) board.undoMove(move, currentRole, undo);
+                    if (stop) return 0;
+                    if (value > bestVal) {
+                        bestVal = value;
+                        if (inPlace) bestCode = buffer[i];
+                    }
+                    alpha = Math.max(alpha, bestVal);
+                    if (beta <= alpha) {
+                        countCutoff(i);
+                        if (inPlace) recordCutoff(board, buffer[i], depth, remaining, side);
+                        break; // Beta cut-off
+                    }
+                }
+            }
+            else {
+                bestVal = IHeuristic.MAX_VALUE;
+                for (int i = 0; i < nbMoves; i++) {
+                    Move move = inPlace ? board.decodeMove(ordering.next(buffer, nbMoves, i, depth)) : moves.get(i);
+                    boolean quiet = inPlace && buffer[i] != hashMove && board.captureValue(buffer[i]) == 0;
+                    if (futile && quiet) {
+                        this.nbFutilityPruned++;
+                        bestVal = Math.min(bestVal, futilityValue);
+                        continue;
+                    }
+                    Board nextBoard = inPlace ? board : board.play(move, currentRole);
+                    long undo = inPlace ? board.doMove(move, currentRole) : 0L;
+                    // Next level will be maximizing
+                    int value;
+                    if (reducible && quiet && i >= LMR_MIN_MOVES) {
+                        // Late quiet move: one ply shallower with a null window, again in full if it beats beta
+                        this.nbReductions++;
+                        value = alphaBeta(nextBoard, depth + 1, beta - 1, beta, true, horizon - 1, extensionsLeft, true);
+                        if (value < beta && !stop) {
+                            this.nbResearches++;
+                            value = alphaBeta(nextBoard, depth + 1, alpha, beta, true, horizon, extensionsLeft, true);
+                        }
+                    } else {
+                        value = alphaBeta(nextBoard, depth + 1, alpha, beta, true, horizon, extensionsLeft, true);
+                    }
+                    if (inPlace) board.undoMove(move, currentRole, undo);
+                    if (stop) return 0;
+                    if (value < bestVal) {
+                        bestVal = value;
+                        if (inPlace) bestCode = buffer[i];
+                    }
+                    beta = Math.min(beta, bestVal);
+                    if (beta <= alpha) {
+                        countCutoff(i);
+                        if (inPlace) recordCutoff(board, buffer[i], depth, remaining, side);
+                        break; // Alpha cut-off
+                    }
+                }
+            }
+
+            if (useTable && nbMoves > 0) {
+                // Outside the (alphaOrig, betaOrig) window the value is only a bound
+                int bound = bestVal <= alphaOrig ? TranspositionTable.UPPER
+                        : bestVal >= betaOrig ? TranspositionTable.LOWER
+                        : TranspositionTable.EXACT;
+                table.store(key, remaining, bound, TranspositionTable.scoreToTable(bestVal, depth),
+                        bound == TranspositionTable.UPPER ? TranspositionTable.NO_MOVE : bestCode);
+            }
             return bestVal;
         }
-        else {
-            int bestVal = IHeuristic.MAX_VALUE;
-            for (Move move : board.possibleMoves(currentRole)) {
-                Board nextBoard = board.play(move, currentRole);
-                // Next level will be maximizing
-                int value = alphaBeta(nextBoard, depth + 1, alpha, beta, true);
-                bestVal = Math.min(bestVal, value);
-                beta = Math.min(beta, bestVal);
-                if (beta <= alpha) {
-                    break; // Alpha cut-off
+
+        /** Value of a horizon node: the evaluation if the player to move stands pat, or better
+         * for him if one of his captures is (captures only, qDepth plies below the horizon)
+         */
+        private int quiescence(Board board, int depth, int alpha, int beta, boolean isMaximizingPlayer, int qDepth) {
+            this.nbLeaves++;
+            // Evaluate from the point of view of the MAX player for consistency with MiniMax
+            int standPat = h.eval(board, playerMaxRole);
+            if (!quiescence || !board.supportsUndo() || qDepth >= QUIESCENCE_PLIES) return standPat;
+            if (isMaximizingPlayer ? standPat >= beta : standPat <= alpha) return standPat;
+
+            Role currentRole = isMaximizingPlayer ? playerMaxRole : playerMinRole;
+            int[] buffer = moveBuffers[depth];
+            int nbMoves = board.captureMoves(currentRole, buffer);
+            if (nbMoves == 0) return standPat;
+            int side = isMaximizingPlayer ? 0 : 1;
+            ordering.score(board, buffer, nbMoves, depth, side, TranspositionTable.NO_MOVE);
+            int bestVal = standPat;
+            for (int i = 0; i < nbMoves; i++) {
+                Move move = board.decodeMove(ordering.next(buffer, nbMoves, i, depth));
+                long undo = board.doMove(move, currentRole);
+                this.nbQuiescenceNodes++;
+                int value = board.isGameOver() ? terminalValue(board, depth + 1)
+                        : quiescence(board, depth + 1, alpha, beta, !isMaximizingPlayer, qDepth + 1);
+                board.undoMove(move, currentRole, undo);
+                if (isMaximizingPlayer) {
+                    bestVal = Math.max(bestVal, value);
+                    alpha = Math.max(alpha, bestVal);
+                } else {
+                    bestVal = Math.min(bestVal, value);
+                    beta = Math.min(beta, bestVal);
                 }
+                if (beta <= alpha) break;
             }
             return bestVal;
         }
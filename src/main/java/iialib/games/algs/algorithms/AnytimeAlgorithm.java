@@ -0,0 +1,41 @@
+package iialib.games.algs.algorithms;
+
+import iialib.games.algs.GameAlgorithm;
+import iialib.games.model.IBoard;
+import iialib.games.model.IMove;
+import iialib.games.model.IRole;
+
+/**
+ * Game algorithm whose search is bounded by SearchLimits and can be stopped at any time, giving
+ * the best move found so far: what a player needs to manage its clock and to ponder.
+ *
+ * An algorithm may keep threads between searches: close() releases them once it is no longer used.
+ */
+public interface AnytimeAlgorithm<Move extends IMove, Role extends IRole, Board extends IBoard<Move, Role, Board>>
+        extends GameAlgorithm<Move, Role, Board>, AutoCloseable {
+
+    /** Searches until one of the limits is reached, or until stop() is called
+     */
+    Move bestMove(Board board, Role playerRole, SearchLimits limits);
+
+    /** Stops the running search from another thread (a search starting after the call is not affected)
+     */
+    void stop();
+
+    /** Number of threads of the searches
+     */
+    void setThreads(int nbThreads);
+
+    /** Move the last searches expect playerRole to play in board (typically the opponent's reply
+     * to the move just played, for pondering)
+     * @return the move, or null if unknown
+     */
+    Move expectedMove(Board board, Role playerRole);
+
+    /** Stops the running search and releases the threads kept between searches (nothing by default).
+     * A later search starts them again.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -41,6 +41,14 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
      */
 	private int nbLeaves;
 
+	/** Statistics of the last search
+     */
+	private SearchStats lastStats;
+
+	/** Prints the stats of each bestMove on the console (off by default)
+     */
+	private boolean verbose;
+
 	// --------- Constructors ---------
 
 	public MiniMax(Role playerMaxRole, Role playerMinRole, IHeuristic<Board, Role> h) {
@@ -61,29 +69,42 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
 
 	@Override
 	public Move bestMove(Board board, Role playerRole) {
-		System.out.println("[MiniMax]");
+		// No search for the min player: no stats either
+		if (playerRole != playerMaxRole) {
+			this.lastStats = null;
+			return null;
+		}
+
+		SearchEvent event = new SearchEvent();
+		event.begin();
+		long start = System.nanoTime();
 
 		Move bestMove = null;
 		this.nbNodes = 0;
 		this.nbLeaves = 0;
 
-		if (playerRole != playerMaxRole) {
-			return null;
-		}
-
 		Iterable<Move> moves = board.possibleMoves(playerRole);
 		int bestValue = IHeuristic.MIN_VALUE;
+		// Boards supporting doMove/undoMove are searched in place (no copy per edge)
+		boolean inPlace = board.supportsUndo();
 		for (Move m : moves) {
-			Board nextBoard = board.play(m, playerRole);
+			Board nextBoard = inPlace ? board : board.play(m, playerRole);
+			long undo = inPlace ? board.doMove(m, playerRole) : 0L;
 			int value = minValue(nextBoard, 1);
+			if (inPlace) board.undoMove(m, playerRole, undo);
 			if (value > bestValue) {
 				bestValue = value;
 				bestMove = m;
 			}
 		}
 
-		System.out.println("  Nombre de noeuds développés : " + this.nbNodes);
-		System.out.println("  Nombre de feuilles évaluées : " + this.nbLeaves);
+		long[] iterationNodes = new long[depthMax + 1];
+		iterationNodes[depthMax] = this.nbNodes;
+		this.lastStats = new SearchStats("MiniMax", depthMax, this.nbNodes, this.nbLeaves, System.nanoTime() - start,
+				0, 0, 0, 0, iterationNodes);
+		event.end();
+		event.commit(lastStats, bestMove);
+		if (verbose) System.out.println(lastStats);
 		return bestMove;
 	}
 
@@ -91,6 +112,16 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
 	 * PUBLIC METHODS ==============
 	 */
 
+	public void setVerbose(boolean verbose) {
+		this.verbose = verbose;
+	}
+
+	/** Statistics of the last bestMove (null before the first one, or if it did not search)
+     */
+	public SearchStats getLastStats() {
+		return lastStats;
+	}
+
 	public String toString() {
 		return "MiniMax(ProfMax=" + depthMax + ")";
 	}
@@ -111,11 +142,14 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
 
 		int value = IHeuristic.MIN_VALUE;
 		Iterable<Move> moves = board.possibleMoves(playerMaxRole);
+		boolean inPlace = board.supportsUndo();
 
 		for (Move m : moves) {
-			Board nextBoard = board.play(m, playerMaxRole);
+			Board nextBoard = inPlace ? board : board.play(m, playerMaxRole);
+			long undo = inPlace ? board.doMove(m, playerMaxRole) : 0L;
 			// 2. Appel récursif au niveau MIN (profondeur + 1)
 			value = Math.max(value, minValue(nextBoard, depth + 1));
+			if (inPlace) board.undoMove(m, playerMaxRole, undo);
 		}
 		return value;
 	}
@@ -133,11 +167,14 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
 
 		int value = IHeuristic.MAX_VALUE;
 		Iterable<Move> moves = board.possibleMoves(playerMinRole);
+		boolean inPlace = board.supportsUndo();
 
 		for (Move m : moves) {
-			Board nextBoard = board.play(m, playerMinRole);
+			Board nextBoard = inPlace ? board : board.play(m, playerMinRole);
+			long undo = inPlace ? board.doMove(m, playerMinRole) : 0L;
 			// 2. Appel récursif au niveau MAX (profondeur + 1)
 			value = Math.min(value, maxValue(nextBoard, depth + 1));
+			if (inPlace) board.undoMove(m, playerMinRole, undo);
 		}
 		return value;
 	}
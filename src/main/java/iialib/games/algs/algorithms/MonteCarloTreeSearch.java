@@ -0,0 +1,519 @@
+package iialib.games.algs.algorithms;
+
+import iialib.games.model.IBoard;
+import iialib.games.model.IMove;
+import iialib.games.model.IRole;
+import iialib.games.model.Score;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monte Carlo Tree Search with UCT selection, for boards supporting undo (and copy, with several threads).
+ *
+ * Each iteration goes down the tree choosing at each node the child with the best UCT value,
+ * expands the first node not expanded yet, plays a random game from its first unvisited child
+ * (a playout), and credits the result to the nodes of the path. Playouts play on the board itself
+ * with doMove/undoMove and int-encoded moves drawn by a xorshift generator, so they allocate nothing
+ * per move. A capture (IBoard.captureValue) is always played when there is one: in Escampe, a
+ * playout never misses a win in one.
+ *
+ * The tree is stored in parallel primitive arrays allocated once, one index per node, the children
+ * of a node being contiguous. Several threads grow the same tree (tree parallelism), each one
+ * playing on its own copy of the board: a thread going through a node counts VIRTUAL_LOSS lost
+ * visits there until its playout is over, so that the other threads explore elsewhere meanwhile.
+ *
+ * Between two searches, the subtree of the new position (the previous root, one of its children
+ * or grandchildren, found by hash) is kept as the new root. The tree is cleared when it is more
+ * than half full.
+ */
+public class MonteCarloTreeSearch<Move extends IMove, Role extends IRole, Board extends IBoard<Move, Role, Board>>
+        implements AnytimeAlgorithm<Move, Role, Board> {
+
+    /** Visits counted as lost by a thread going through a node, until its playout result is known
+     */
+    private static final int VIRTUAL_LOSS = 3;
+
+    /** Playouts longer than this are draws
+     */
+    private static final int MAX_PLAYOUT = 256;
+
+    /** Longest path followed in the tree
+     */
+    private static final int MAX_PATH = 256;
+
+    /** Exploration constant of UCT (rewards are in [0, 1])
+     */
+    private static final double EXPLORATION = 1.0;
+
+    // Node states
+    private static final int UNEXPANDED = 0;
+    private static final int EXPANDING = 1;
+    private static final int EXPANDED = 2;
+
+    // Sides: the MAX player moves at side 0 nodes, the MIN player at side 1 nodes
+    private static final int DRAW = -1;
+
+    // Attributes
+    private final Role playerMaxRole;
+    private final Role playerMinRole;
+
+    /** Playouts of a search with no other limit (see bestMove(Board, Role))
+     */
+    private final int playoutsPerMove;
+
+    // Tree: move leading to the node, children block, expansion state, visits, and rewards in half
+    // points (2 per win, 1 per draw) for the player who moved into the node
+    private final int[] moves;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final AtomicIntegerArray states;
+    private final AtomicIntegerArray visits;
+    private final AtomicLongArray rewards;
+    private final AtomicInteger nextFree = new AtomicInteger();
+
+    /** Root of the tree, its side, and a copy of its position (to find the next root)
+     */
+    private int root;
+    private int rootSide;
+    private Board rootBoard;
+
+    private volatile boolean stop;
+    private final LongAdder nbPlayouts = new LongAdder();
+
+    /** Statistics of the last bestMove (null before the first one)
+     */
+    private SearchStats lastStats;
+
+    /** Prints the stats of each bestMove on the console (off by default)
+     */
+    private boolean verbose;
+
+    /** Threads: the caller plus nbThreads - 1 helpers, on copies of the board
+     */
+    private int nbThreads = 1;
+    private final List<Worker> workers = new ArrayList<>();
+    private ExecutorService helperPool;
+
+    public MonteCarloTreeSearch(Role playerMaxRole, Role playerMinRole, int playoutsPerMove) {
+        this(playerMaxRole, playerMinRole, playoutsPerMove, 1 << 20);
+    }
+
+    /**
+     * @param capacity number of nodes of the tree (about 30 bytes each)
+     */
+    public MonteCarloTreeSearch(Role playerMaxRole, Role playerMinRole, int playoutsPerMove, int capacity) {
+        this.playerMaxRole = playerMaxRole;
+        this.playerMinRole = playerMinRole;
+        this.playoutsPerMove = playoutsPerMove;
+        this.moves = new int[capacity];
+        this.firstChild = new int[capacity];
+        this.childCount = new int[capacity];
+        this.states = new AtomicIntegerArray(capacity);
+        this.visits = new AtomicIntegerArray(capacity);
+        this.rewards = new AtomicLongArray(capacity);
+        this.workers.add(new Worker(0));
+    }
+
+    @Override
+    public void setThreads(int nbThreads) {
+        if (nbThreads == this.nbThreads) return;
+        shutdownHelpers();
+        this.nbThreads = Math.max(1, nbThreads);
+        while (workers.size() > this.nbThreads) workers.remove(workers.size() - 1);
+        while (workers.size() < this.nbThreads) workers.add(new Worker(workers.size()));
+    }
+
+    @Override
+    public Move bestMove(Board board, Role playerRole) {
+        return bestMove(board, playerRole, new SearchLimits().maxNodes(playoutsPerMove));
+    }
+
+    /** Runs playouts until maxNodes playouts, the soft time or the hard time (the first one given),
+     * or until stop() if there is no limit at all. maxDepth and stopOnForcedWin are not used.
+     * @return the most visited move of the root
+     */
+    @Override
+    public Move bestMove(Board board, Role playerRole, SearchLimits limits) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long timeMs = limits.getSoftTimeMs() > 0 ? limits.getSoftTimeMs() : limits.getHardTimeMs();
+        long deadline = timeMs > 0 ? start + timeMs * 1_000_000 : Long.MAX_VALUE;
+        long maxPlayouts = limits.getMaxNodes();
+        this.stop = false;
+        nbPlayouts.reset();
+
+        int reused = setRoot(board, playerRole);
+        List<Future<?>> running = startHelpers(board);
+        try {
+            workers.get(0).run(board, maxPlayouts, deadline);
+        } finally {
+            this.stop = true;
+            awaitHelpers(running);
+        }
+
+        int best = mostVisitedChild(root);
+        Move bestMove;
+        if (best >= 0) {
+            bestMove = board.decodeMove(moves[best]);
+        } else {
+            List<Move> legal = board.possibleMoves(playerRole);
+            bestMove = legal.isEmpty() ? null : legal.get(0);
+        }
+
+        // Each playout ends on one leaf; there is no depth
+        this.lastStats = new SearchStats("MonteCarloTreeSearch", 0, nbPlayouts.sum(), nbPlayouts.sum(),
+                System.nanoTime() - start, 0, 0, 0, 0, new long[0])
+                .counter("treeNodes", nextFree.get())
+                .counter("reusedNodes", reused)
+                .counter("bestMoveVisits", best < 0 ? 0 : visits.get(best))
+                .counter("threads", running.size() + 1);
+        event.end();
+        event.commit(lastStats, bestMove);
+        if (verbose) System.out.println(lastStats);
+        return bestMove;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /** Statistics of the last bestMove (null before the first one): the nodes are the playouts
+     */
+    public SearchStats getLastStats() {
+        return lastStats;
+    }
+
+    @Override
+    public void stop() {
+        this.stop = true;
+    }
+
+    /** Stops the running search and the helper threads (they are started again by the next search),
+     * so that a discarded instance and its tree can be collected
+     */
+    @Override
+    public void close() {
+        this.stop = true;
+        shutdownHelpers();
+    }
+
+    private void shutdownHelpers() {
+        if (helperPool != null) {
+            helperPool.shutdown();
+            helperPool = null;
+        }
+    }
+
+    /** The most visited reply of the tree node of board, if the last search reached it
+     */
+    @Override
+    public Move expectedMove(Board board, Role playerRole) {
+        int node = findNode(board, side(playerRole));
+        if (node < 0) return null;
+        int best = mostVisitedChild(node);
+        return best < 0 ? null : board.decodeMove(moves[best]);
+    }
+
+    public long getNbPlayouts() {
+        return nbPlayouts.sum();
+    }
+
+    // --- Tree ---
+
+    /** Makes board the root, keeping its subtree if the previous search reached it
+     * @return the number of visits kept
+     */
+    private int setRoot(Board board, Role playerRole) {
+        int side = side(playerRole);
+        int node = nextFree.get() * 2 <= moves.length ? findNode(board, side) : -1;
+        if (node < 0) {
+            nextFree.set(0);
+            node = allocate(1);
+            moves[node] = TranspositionTable.NO_MOVE;
+        }
+        this.root = node;
+        this.rootSide = side;
+        this.rootBoard = board.supportsHash() ? board.copy() : null;
+        return visits.get(node);
+    }
+
+    /** Index of the node of board (the root, or one of its children or grandchildren), -1 if none
+     */
+    private int findNode(Board board, int side) {
+        if (rootBoard == null || !board.supportsHash() || nextFree.get() == 0) return -1;
+        long key = board.getHash();
+        if (side == rootSide && rootBoard.getHash() == key) return root;
+        if (states.get(root) != EXPANDED) return -1;
+        Role rootRole = role(rootSide);
+        Role childRole = role(rootSide ^ 1);
+        int found = -1;
+        for (int c = firstChild[root]; c < firstChild[root] + childCount[root] && found < 0; c++) {
+            Move move = rootBoard.decodeMove(moves[c]);
+            long undo = rootBoard.doMove(move, rootRole);
+            if (side != rootSide) {
+                if (rootBoard.getHash() == key) found = c;
+            } else if (states.get(c) == EXPANDED) {
+                for (int g = firstChild[c]; g < firstChild[c] + childCount[c] && found < 0; g++) {
+                    Move reply = rootBoard.decodeMove(moves[g]);
+                    long undoReply = rootBoard.doMove(reply, childRole);
+                    if (rootBoard.getHash() == key) found = g;
+                    rootBoard.undoMove(reply, childRole, undoReply);
+                }
+            }
+            rootBoard.undoMove(move, rootRole, undo);
+        }
+        return found;
+    }
+
+    /** Reserves n contiguous fresh nodes
+     * @return the first one, -1 if the tree is full
+     */
+    private int allocate(int n) {
+        int first;
+        do {
+            first = nextFree.get();
+            if (first + n > moves.length) return -1;
+        } while (!nextFree.compareAndSet(first, first + n));
+        for (int i = first; i < first + n; i++) {
+            childCount[i] = 0;
+            states.set(i, UNEXPANDED);
+            visits.set(i, 0);
+            rewards.set(i, 0L);
+        }
+        return first;
+    }
+
+    private int mostVisitedChild(int node) {
+        if (states.get(node) != EXPANDED) return -1;
+        int best = -1;
+        for (int c = firstChild[node]; c < firstChild[node] + childCount[node]; c++) {
+            if (best < 0 || visits.get(c) > visits.get(best)) best = c;
+        }
+        return best;
+    }
+
+    private int side(Role role) {
+        return role.equals(playerMaxRole) ? 0 : 1;
+    }
+
+    private Role role(int side) {
+        return side == 0 ? playerMaxRole : playerMinRole;
+    }
+
+    /** Side of the winner of a finished game, DRAW if none
+     */
+    private int winner(Board board) {
+        for (Score<Role> score : board.getScores()) {
+            if (score.getStatus() == Score.Status.WIN) return side(score.getRole());
+        }
+        return DRAW;
+    }
+
+    // --- Threads ---
+
+    private List<Future<?>> startHelpers(Board board) {
+        List<Future<?>> running = new ArrayList<>(nbThreads - 1);
+        if (nbThreads == 1) return running;
+        if (helperPool == null) {
+            helperPool = Executors.newFixedThreadPool(nbThreads - 1, r -> {
+                Thread t = new Thread(r, "MCTS-helper");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        for (int i = 1; i < nbThreads; i++) {
+            Worker helper = workers.get(i);
+            Board copy = board.copy();
+            running.add(helperPool.submit(() -> helper.run(copy, Long.MAX_VALUE, Long.MAX_VALUE)));
+        }
+        return running;
+    }
+
+    private void awaitHelpers(List<Future<?>> running) {
+        for (Future<?> f : running) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("MCTS helper failed", e.getCause());
+            }
+        }
+    }
+
+    /** State of one search thread: its random generator and its buffers
+     */
+    private final class Worker {
+
+        /** 0 for the main thread, 1.. for the helpers
+         */
+        private final int id;
+
+        private long random;
+        private int[] buffer = new int[0];
+        private final int[] path = new int[MAX_PATH + 1];
+        private final int[] pathSides = new int[MAX_PATH + 1];
+        private final long[] pathUndo = new long[MAX_PATH + 1];
+        private final int[] playoutMoves = new int[MAX_PLAYOUT];
+        private final long[] playoutUndo = new long[MAX_PLAYOUT];
+
+        Worker(int id) {
+            this.id = id;
+            this.random = System.nanoTime() ^ (0x9E3779B97F4A7C15L * (id + 1));
+            if (random == 0) random = 1;
+        }
+
+        /** Iterates on board until the search is stopped: the main thread stops it when a limit
+         * is reached (the playouts being counted over all the threads every 64 of its own)
+         */
+        void run(Board board, long maxPlayouts, long deadline) {
+            if (buffer.length < board.maxPossibleMoves()) buffer = new int[board.maxPossibleMoves()];
+            long count = 0;
+            while (!stop) {
+                iterate(board);
+                nbPlayouts.increment();
+                count++;
+                if (id == 0 && (count >= maxPlayouts || ((count & 63) == 0
+                        && (nbPlayouts.sum() >= maxPlayouts || System.nanoTime() >= deadline)))) {
+                    stop = true;
+                }
+            }
+        }
+
+        private int nextInt(int bound) {
+            long x = random;
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+            random = x;
+            return (int) (((x >>> 32) * bound) >>> 32);
+        }
+
+        /** One iteration: selection, expansion, playout, then backpropagation
+         */
+        private void iterate(Board board) {
+            int node = root;
+            int side = rootSide;
+            int length = 0;
+            path[0] = node;
+            pathSides[0] = side;
+            visits.addAndGet(node, VIRTUAL_LOSS);
+            int winner;
+            while (true) {
+                if (board.isGameOver()) {
+                    winner = winner(board);
+                    break;
+                }
+                if (states.get(node) == UNEXPANDED) expand(board, node, side);
+                if (states.get(node) != EXPANDED || length == MAX_PATH) {
+                    winner = playout(board, side);
+                    break;
+                }
+                int child = select(node);
+                boolean fresh = visits.getAndAdd(child, VIRTUAL_LOSS) == 0;
+                pathUndo[length + 1] = board.doMove(board.decodeMove(moves[child]), role(side));
+                side ^= 1;
+                node = child;
+                length++;
+                path[length] = node;
+                pathSides[length] = side;
+                if (fresh) {
+                    winner = board.isGameOver() ? winner(board) : playout(board, side);
+                    break;
+                }
+            }
+
+            // Back to the root position, crediting each node to the player who moved into it
+            for (int i = length; i >= 0; i--) {
+                int n = path[i];
+                if (i > 0) {
+                    int mover = pathSides[i - 1];
+                    board.undoMove(board.decodeMove(moves[n]), role(mover), pathUndo[i]);
+                    rewards.addAndGet(n, winner == DRAW ? 1 : winner == mover ? 2 : 0);
+                }
+                visits.addAndGet(n, 1 - VIRTUAL_LOSS);
+            }
+        }
+
+        /** Creates the children of node (unless another thread does it, or the tree is full)
+         */
+        private void expand(Board board, int node, int side) {
+            if (!states.compareAndSet(node, UNEXPANDED, EXPANDING)) return;
+            int n = board.possibleMoves(role(side), buffer);
+            int first = n > 0 ? allocate(n) : -1;
+            if (first < 0) {
+                states.set(node, UNEXPANDED);
+                return;
+            }
+            for (int i = 0; i < n; i++) {
+                moves[first + i] = buffer[i];
+            }
+            firstChild[node] = first;
+            childCount[node] = n;
+            states.set(node, EXPANDED); // publishes the children to the other threads
+        }
+
+        /** Child of node with the best UCT value (an unvisited one first)
+         */
+        private int select(int node) {
+            int first = firstChild[node];
+            int end = first + childCount[node];
+            double logVisits = Math.log(Math.max(1, visits.get(node)));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int c = first; c < end; c++) {
+                int v = visits.get(c);
+                if (v == 0) return c;
+                double value = rewards.get(c) / (2.0 * v) + EXPLORATION * Math.sqrt(logVisits / v);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        /** Random game from board (side to move), undone before returning
+         * @return the side of the winner, DRAW if none
+         */
+        private int playout(Board board, int side) {
+            int plies = 0;
+            int winner = DRAW;
+            while (plies < MAX_PLAYOUT) {
+                if (board.isGameOver()) {
+                    winner = winner(board);
+                    break;
+                }
+                Role role = role(side);
+                int n = board.possibleMoves(role, buffer);
+                if (n == 0) break;
+                int code = buffer[nextInt(n)];
+                for (int i = 0; i < n; i++) {
+                    if (board.captureValue(buffer[i]) > 0) {
+                        code = buffer[i];
+                        break;
+                    }
+                }
+                playoutUndo[plies] = board.doMove(board.decodeMove(code), role);
+                playoutMoves[plies] = code;
+                plies++;
+                side ^= 1;
+            }
+            for (int i = plies - 1; i >= 0; i--) {
+                side ^= 1;
+                board.undoMove(board.decodeMove(playoutMoves[i]), role(side), playoutUndo[i]);
+            }
+            return winner;
+        }
+    }
+}
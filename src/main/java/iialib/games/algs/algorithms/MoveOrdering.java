@@ -0,0 +1,137 @@
+package iialib.games.algs.algorithms;
+
+import iialib.games.model.IBoard;
+
+/**
+ * Move ordering for the searches working on int-encoded moves (IBoard.possibleMoves(Role, int[])).
+ *
+ * Moves are tried in this order:
+ * - captures, most valuable first (IBoard.captureValue)
+ * - the hash move (best move stored in the transposition table, or of the previous iteration)
+ * - the two killer moves of the ply (quiet moves that caused a cutoff at the same ply)
+ * - the other moves by decreasing history score: quiet moves that caused cutoffs, indexed by
+ *   side and by the from/to part of their code (its low HISTORY_BITS bits), weighted by depth.
+ * History scores are halved at each new search, so that old results fade out.
+ *
+ * The moves are not sorted up front: next() selects the best remaining move, which is cheaper
+ * when a cutoff occurs after the first few moves.
+ */
+public final class MoveOrdering {
+
+    /** Number of low bits of a move code identifying its from/to squares
+     */
+    public static final int HISTORY_BITS = 12;
+    private static final int HISTORY_MASK = (1 << HISTORY_BITS) - 1;
+
+    // Ordering scores: every capture before the hash move, before the killers, before history
+    private static final int CAPTURE_SCORE = 1 << 30;
+    private static final int HASH_SCORE = 1 << 29;
+    private static final int KILLER_SCORE = 1 << 28;
+    private static final int HISTORY_MAX = 1 << 24;
+
+    private static final int NO_MOVE = TranspositionTable.NO_MOVE;
+
+    /** Killer moves, two per ply
+     */
+    private int[][] killers;
+
+    /** History scores, [side][from/to]
+     */
+    private final int[][] history = new int[2][1 << HISTORY_BITS];
+
+    /** Ordering scores of the moves of each ply, parallel to the move buffers
+     */
+    private int[][] scores;
+
+    public MoveOrdering(int maxPly, int maxMoves) {
+        ensureCapacity(maxPly, maxMoves);
+    }
+
+    /** Grows the per-ply arrays (keeping the history)
+     */
+    public void ensureCapacity(int maxPly, int maxMoves) {
+        if (killers == null || killers.length < maxPly || scores[0].length < maxMoves) {
+            killers = new int[maxPly][2];
+            scores = new int[maxPly][maxMoves];
+            clearKillers();
+        }
+    }
+
+    /** Starts a new search: the killers are cleared and the history is aged
+     */
+    public void newSearch() {
+        clearKillers();
+        for (int[] side : history) {
+            for (int i = 0; i < side.length; i++) {
+                side[i] >>= 1;
+            }
+        }
+    }
+
+    private void clearKillers() {
+        for (int[] k : killers) {
+            k[0] = NO_MOVE;
+            k[1] = NO_MOVE;
+        }
+    }
+
+    /** Computes the ordering scores of the n moves of ply
+     * @param side     0 for the MAX player, 1 for the MIN player
+     * @param hashMove move to try first after the captures, or TranspositionTable.NO_MOVE
+     */
+    public void score(IBoard<?, ?, ?> board, int[] moves, int n, int ply, int side, int hashMove) {
+        int[] s = scores[ply];
+        int[] k = killers[ply];
+        int[] hist = history[side];
+        for (int i = 0; i < n; i++) {
+            int move = moves[i];
+            int capture = board.captureValue(move);
+            if (capture > 0) s[i] = CAPTURE_SCORE + capture;
+            else if (move == hashMove) s[i] = HASH_SCORE;
+            else if (move == k[0]) s[i] = KILLER_SCORE + 1;
+            else if (move == k[1]) s[i] = KILLER_SCORE;
+            else s[i] = hist[move & HISTORY_MASK];
+        }
+    }
+
+    /** Selects the best of moves[i..n) (as scored by score), moves it to index i and returns it
+     */
+    public int next(int[] moves, int n, int i, int ply) {
+        int[] s = scores[ply];
+        int best = i;
+        for (int j = i + 1; j < n; j++) {
+            if (s[j] > s[best]) best = j;
+        }
+        if (best != i) {
+            int move = moves[best];
+            moves[best] = moves[i];
+            moves[i] = move;
+            int score = s[best];
+            s[best] = s[i];
+            s[i] = score;
+        }
+        return moves[i];
+    }
+
+    /** Records a move that caused a cutoff (only quiet moves update the killers and the history)
+     * @param depth remaining depth of the node
+     */
+    public void cutoff(int move, int ply, int side, int depth, boolean quiet) {
+        if (!quiet) return;
+        int[] k = killers[ply];
+        if (k[0] != move) {
+            k[1] = k[0];
+            k[0] = move;
+        }
+        int[] hist = history[side];
+        int index = move & HISTORY_MASK;
+        hist[index] += depth * depth;
+        if (hist[index] > HISTORY_MAX) {
+            for (int[] h : history) {
+                for (int j = 0; j < h.length; j++) {
+                    h[j] >>= 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package iialib.games.algs.algorithms;
+
+import iialib.games.algs.GameAlgorithm;
+import iialib.games.algs.IHeuristic;
+import iialib.games.model.IBoard;
+import iialib.games.model.IMove;
+import iialib.games.model.IRole;
+import iialib.games.model.Score;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Negamax principal variation search, deepened iteratively within SearchLimits.
+ *
+ * Scores are given from the point of view of the player to move, and always lie within
+ * [-INFINITY, INFINITY] so that window bounds can be negated safely. A win reached at ply p
+ * is worth WIN_VALUE - p: the search prefers the fastest win and the slowest loss.
+ *
+ * - the first move of each node is searched with the full window, the others with a zero
+ *   window, re-searched with the full window when they turn out better;
+ * - from depth 3 on, each iteration starts with an aspiration window around the score of the
+ *   previous one, widened on failure;
+ * - the principal variation is collected in a triangular table (pvMoves[ply] holds the
+ *   best line from ply on).
+ * Boards supporting doMove/undoMove are searched in place, with the transposition table
+ * (if any) and MoveOrdering; the others through play.
+ */
+public class PrincipalVariationSearch<Move extends IMove, Role extends IRole, Board extends IBoard<Move, Role, Board>>
+        implements GameAlgorithm<Move, Role, Board> {
+
+    /** Bound of all scores (a win at ply 0 is worth WIN_VALUE)
+     */
+    private static final int INFINITY = IHeuristic.WIN_VALUE + 1;
+
+    /** Initial half-width of the aspiration window, multiplied by 4 at each failure
+     */
+    private static final int ASPIRATION_DELTA = 16;
+
+    /** The limits are checked every CHECK_INTERVAL + 1 nodes
+     */
+    private static final int CHECK_INTERVAL = 1023;
+
+    // Attributes
+    /** Roles of the players (the root player may be either)
+     */
+    private final Role playerMaxRole;
+    private final Role playerMinRole;
+
+    /** Heuristic, evaluating the board for the player to move
+     */
+    private final IHeuristic<Board, Role> h;
+
+    /** Limits of each call to bestMove
+     */
+    private final SearchLimits limits;
+
+    /** Transposition table (null if none)
+     */
+    private final TranspositionTable table;
+
+    private MoveOrdering ordering;
+    private int[][] moveBuffers;
+
+    /** Triangular principal variation table
+     */
+    private Object[][] pvMoves;
+    private int[] pvLength;
+
+    /** Principal variation and score of the last completed iteration
+     */
+    private List<Move> principalVariation = Collections.emptyList();
+    private int score;
+    private int completedDepth;
+
+    /** number of visited nodes, leaves and aspiration re-searches (for stats)
+     */
+    private long nbNodes;
+    private long nbLeaves;
+    private int nbResearches;
+
+    /** Statistics of the last bestMove (null before the first one)
+     */
+    private SearchStats lastStats;
+
+    /** Prints the stats and the principal variation of each bestMove on the console (off by default)
+     */
+    private boolean verbose;
+
+    private long maxNodes;
+    private long hardDeadline;
+    private boolean aborted;
+
+    public PrincipalVariationSearch(Role playerMaxRole, Role playerMinRole, IHeuristic<Board, Role> h, int depthMax) {
+        this(playerMaxRole, playerMinRole, h, new SearchLimits().maxDepth(depthMax), 0);
+    }
+
+    /**
+     * @param limits      limits of each search
+     * @param tableSizeMb size of the transposition table in megabytes, 0 for no table
+     */
+    public PrincipalVariationSearch(Role playerMaxRole, Role playerMinRole, IHeuristic<Board, Role> h,
+                                    SearchLimits limits, int tableSizeMb) {
+        this.playerMaxRole = playerMaxRole;
+        this.playerMinRole = playerMinRole;
+        this.h = h;
+        this.limits = limits;
+        this.table = tableSizeMb > 0 ? new TranspositionTable(tableSizeMb) : null;
+    }
+
+    @Override
+    public Move bestMove(Board board, Role playerRole) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long softDeadline = limits.getSoftTimeMs() > 0 ? start + limits.getSoftTimeMs() * 1_000_000 : Long.MAX_VALUE;
+        this.hardDeadline = limits.getHardTimeMs() > 0 ? start + limits.getHardTimeMs() * 1_000_000 : Long.MAX_VALUE;
+        this.maxNodes = limits.getMaxNodes();
+        this.nbNodes = 0;
+        this.nbLeaves = 0;
+        this.nbResearches = 0;
+        this.aborted = false;
+        this.completedDepth = 0;
+        this.principalVariation = Collections.emptyList();
+        allocate(board, limits.getMaxDepth() + 1);
+        if (table != null) table.newSearch();
+        if (ordering != null) ordering.newSearch();
+
+        long[] iterationNodes = new long[limits.getMaxDepth() + 1];
+        Move bestMove = null;
+        for (int depth = 1; depth <= limits.getMaxDepth(); depth++) {
+            long iterationStart = nbNodes;
+            int delta = ASPIRATION_DELTA;
+            int alpha = -INFINITY;
+            int beta = INFINITY;
+            if (depth >= 3 && Math.abs(score) < TranspositionTable.MATE_BOUND) {
+                alpha = Math.max(score - delta, -INFINITY);
+                beta = Math.min(score + delta, INFINITY);
+            }
+            int value;
+            while (true) {
+                value = negamax(board, playerRole, depth, 0, alpha, beta, bestMove);
+                if (aborted) break;
+                // Outside the window the value is only a bound: widen the failing side
+                // (fully when the bound is a win or a loss)
+                boolean mate = Math.abs(value) >= TranspositionTable.MATE_BOUND;
+                if (value <= alpha && alpha > -INFINITY) {
+                    alpha = mate ? -INFINITY : Math.max(alpha - delta, -INFINITY);
+                } else if (value >= beta && beta < INFINITY) {
+                    beta = mate ? INFINITY : Math.min(beta + delta, INFINITY);
+                } else {
+                    break;
+                }
+                delta *= 4;
+                nbResearches++;
+            }
+            if (aborted) break; // the unfinished iteration is discarded
+
+            this.score = value;
+            this.completedDepth = depth;
+            iterationNodes[depth] = nbNodes - iterationStart;
+            this.principalVariation = extractPrincipalVariation();
+            if (!principalVariation.isEmpty()) bestMove = principalVariation.get(0);
+            if (limits.stopsOnForcedWin() && value >= TranspositionTable.MATE_BOUND) break;
+            if (nbNodes >= limits.getMaxNodes() || System.nanoTime() >= softDeadline) break;
+        }
+
+        if (bestMove == null) {
+            List<Move> moves = board.possibleMoves(playerRole);
+            if (!moves.isEmpty()) bestMove = moves.get(0);
+        }
+        this.lastStats = new SearchStats("PrincipalVariationSearch", completedDepth, nbNodes, nbLeaves,
+                System.nanoTime() - start, 0, 0, table == null ? 0 : table.getProbes(),
+                table == null ? 0 : table.getHits(), iterationNodes)
+                .counter("researches", nbResearches);
+        event.end();
+        event.commit(lastStats, bestMove);
+        if (verbose) System.out.println(lastStats + " PV " + principalVariation);
+        return bestMove;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /** Statistics of the last bestMove (null before the first one)
+     */
+    public SearchStats getLastStats() {
+        return lastStats;
+    }
+
+    /** Best line found by the last completed iteration, starting with the returned move
+     */
+    public List<Move> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    /** Score of the last completed iteration, for the player to move at the root
+     */
+    public int getScore() {
+        return score;
+    }
+
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    public long getNbNodes() {
+        return nbNodes;
+    }
+
+    private void allocate(Board board, int maxPly) {
+        if (pvMoves == null || pvMoves.length < maxPly) {
+            pvMoves = new Object[maxPly][maxPly];
+            pvLength = new int[maxPly];
+        }
+        if (board.supportsUndo()) {
+            int size = board.maxPossibleMoves();
+            if (moveBuffers == null || moveBuffers.length < maxPly || moveBuffers[0].length < size) {
+                moveBuffers = new int[maxPly][size];
+            }
+            if (ordering == null) ordering = new MoveOrdering(maxPly, size);
+            else ordering.ensureCapacity(maxPly, size);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Move> extractPrincipalVariation() {
+        List<Move> pv = new ArrayList<>(pvLength[0]);
+        for (int i = 0; i < pvLength[0]; i++) {
+            pv.add((Move) pvMoves[0][i]);
+        }
+        return pv;
+    }
+
+    private Role opponent(Role role) {
+        return role.equals(playerMaxRole) ? playerMinRole : playerMaxRole;
+    }
+
+    /** Value of a finished game for the player to move at ply
+     */
+    private int terminalScore(Board board, Role role, int ply) {
+        for (Score<Role> s : board.getScores()) {
+            if (!s.getRole().equals(role)) continue;
+            switch (s.getStatus()) {
+                case WIN:
+                    return IHeuristic.WIN_VALUE - ply;
+                case LOOSE:
+                    return -(IHeuristic.WIN_VALUE - ply);
+                default:
+                    return 0;
+            }
+        }
+        return h.eval(board, role);
+    }
+
+    /**
+     * @param depth    remaining depth
+     * @param ply      distance from the root
+     * @param rootMove at the root, the best move of the previous iteration (tried first)
+     * @return the score of board for role, within (alpha, beta) if exact, else a bound
+     */
+    private int negamax(Board board, Role role, int depth, int ply, int alpha, int beta, Move rootMove) {
+        this.nbNodes++;
+        if ((this.nbNodes & CHECK_INTERVAL) == 0
+                && (this.nbNodes >= this.maxNodes || System.nanoTime() >= this.hardDeadline)) {
+            this.aborted = true;
+        }
+        if (this.aborted) return 0; // the callers unwind without using the value
+        pvLength[ply] = ply;
+
+        if (board.isGameOver()) {
+            this.nbLeaves++;
+            return terminalScore(board, role, ply);
+        }
+        if (depth <= 0 || ply + 1 >= pvMoves.length) {
+            this.nbLeaves++;
+            return h.eval(board, role);
+        }
+
+        // Mate distance pruning: nothing below can beat a win at ply + 1 or a loss at ply + 2
+        // (not at the root, which must always get a move)
+        if (ply > 0) {
+            alpha = Math.max(alpha, -(IHeuristic.WIN_VALUE - ply - 2));
+            beta = Math.min(beta, IHeuristic.WIN_VALUE - ply - 1);
+            if (alpha >= beta) return alpha;
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        boolean inPlace = board.supportsUndo();
+        boolean useTable = inPlace && table != null && board.supportsHash();
+        long key = 0L;
+        int hashMove = TranspositionTable.NO_MOVE;
+        if (useTable) {
+            key = board.getHash();
+            long entry = table.probe(key);
+            if (entry != 0L) {
+                // Table cutoffs are only taken at zero-window nodes, which keeps the PV complete
+                if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                    int value = TranspositionTable.scoreFromTable(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER && value >= beta)
+                            || (bound == TranspositionTable.UPPER && value <= alpha)) {
+                        return value;
+                    }
+                }
+                hashMove = TranspositionTable.move(entry);
+            }
+        }
+
+        int side = role.equals(playerMaxRole) ? 0 : 1;
+        int[] buffer = inPlace ? moveBuffers[ply] : null;
+        List<Move> moves = inPlace ? null : board.possibleMoves(role);
+        int nbMoves = inPlace ? board.possibleMoves(role, buffer) : moves.size();
+        if (rootMove != null) {
+            for (int i = 0; i < nbMoves; i++) {
+                if (inPlace ? board.decodeMove(buffer[i]).equals(rootMove) : moves.get(i).equals(rootMove)) {
+                    if (inPlace) hashMove = buffer[i];
+                    else Collections.swap(moves, 0, i);
+                    break;
+                }
+            }
+        }
+        if (inPlace) ordering.score(board, buffer, nbMoves, ply, side, hashMove);
+
+        Role next = opponent(role);
+        int alphaOrig = alpha;
+        int best = -INFINITY;
+        int bestCode = TranspositionTable.NO_MOVE;
+        for (int i = 0; i < nbMoves; i++) {
+            int code = inPlace ? ordering.next(buffer, nbMoves, i, ply) : 0;
+            Move move = inPlace ? board.decodeMove(code) : moves.get(i);
+            Board nextBoard = inPlace ? board : board.play(move, role);
+            long undo = inPlace ? board.doMove(move, role) : 0L;
+            int value;
+            if (i == 0) {
+                value = -negamax(nextBoard, next, depth - 1, ply + 1, -beta, -alpha, null);
+            } else {
+                // The first move is expected to be the best: the others only have to be proven worse
+                value = -negamax(nextBoard, next, depth - 1, ply + 1, -alpha - 1, -alpha, null);
+                if (value > alpha && value < beta && !aborted) {
+                    value = -negamax(nextBoard, next, depth - 1, ply + 1, -beta, -alpha, null);
+                }
+            }
+            if (inPlace) board.undoMove(move, role, undo);
+            if (this.aborted) return 0;
+
+            if (value > best) {
+                best = value;
+                bestCode = code;
+                if (value > alpha) {
+                    alpha = value;
+                    // The PV of this node is move followed by the PV of the child
+                    Object[] line = pvMoves[ply];
+                    line[ply] = move;
+                    int length = pvLength[ply + 1];
+                    System.arraycopy(pvMoves[ply + 1], ply + 1, line, ply + 1, length - ply - 1);
+                    pvLength[ply] = Math.max(length, ply + 1);
+                    if (alpha >= beta) {
+                        if (inPlace) ordering.cutoff(code, ply, side, depth, board.captureValue(code) == 0);
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (useTable && nbMoves > 0) {
+            int bound = best <= alphaOrig ? TranspositionTable.UPPER
+                    : best >= beta ? TranspositionTable.LOWER
+                    : TranspositionTable.EXACT;
+            table.store(key, depth, bound, TranspositionTable.scoreToTable(best, ply),
+                    bound == TranspositionTable.UPPER ? TranspositionTable.NO_MOVE : bestCode);
+        }
+        return best;
+    }
+}
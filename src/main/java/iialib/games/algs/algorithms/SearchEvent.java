@@ -0,0 +1,66 @@
+package iialib.games.algs.algorithms;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+
+/**
+ * Flight Recorder event spanning one bestMove call, with the figures of its SearchStats
+ * (enabled by default; it costs nothing when no recording runs).
+ */
+@Name("iialib.Search")
+@Label("Search")
+@Category({"iialib", "Search"})
+@Description("One best move search")
+final class SearchEvent extends Event {
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Depth")
+    @Description("Depth of the last completed iteration")
+    int depth;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Leaves")
+    long leaves;
+
+    @Label("Nodes per Second")
+    long nodesPerSecond;
+
+    @Label("Branching Factor")
+    @Description("Effective branching factor of the last completed depth")
+    double branchingFactor;
+
+    @Label("First Move Cutoff Rate")
+    @Percentage
+    double firstMoveCutoffRate;
+
+    @Label("Table Hit Rate")
+    @Percentage
+    double tableHitRate;
+
+    @Label("Best Move")
+    String bestMove;
+
+    /** Copies the figures of stats and commits the event, if it is recorded
+     */
+    void commit(SearchStats stats, Object bestMove) {
+        if (!shouldCommit()) return;
+        this.algorithm = stats.getAlgorithm();
+        this.depth = stats.getDepth();
+        this.nodes = stats.getNodes();
+        this.leaves = stats.getLeaves();
+        this.nodesPerSecond = stats.getNodesPerSecond();
+        this.branchingFactor = stats.getBranchingFactor(stats.getDepth());
+        this.firstMoveCutoffRate = stats.getFirstMoveCutoffRate();
+        this.tableHitRate = stats.getTableHitRate();
+        this.bestMove = String.valueOf(bestMove);
+        commit();
+    }
+}
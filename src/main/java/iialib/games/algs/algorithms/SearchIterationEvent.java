@@ -0,0 +1,34 @@
+package iialib.games.algs.algorithms;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning one iteration of an iterative deepening search (main thread).
+ */
+@Name("iialib.SearchIteration")
+@Label("Search Iteration")
+@Category({"iialib", "Search"})
+@Description("One iteration of an iterative deepening search")
+final class SearchIterationEvent extends Event {
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Nodes")
+    @Description("Nodes of the iteration (main thread)")
+    long nodes;
+
+    @Label("Score")
+    int score;
+
+    @Label("Completed")
+    @Description("False if a limit or stop() aborted the iteration")
+    boolean completed;
+
+    @Label("Best Move")
+    String bestMove;
+}
@@ -0,0 +1,72 @@
+package iialib.games.algs.algorithms;
+
+/**
+ * Limits of an iterative deepening search (see AlphaBeta.bestMove(Board, Role, SearchLimits)).
+ *
+ * The search deepens one ply at a time until one of the limits is reached:
+ * - maxDepth: last depth searched
+ * - maxNodes: no new iteration is started past this number of nodes, and the running one is aborted
+ * - softTimeMs: no new iteration is started after this time
+ * - hardTimeMs: the running iteration is aborted at this time
+ * - stopOnForcedWin: stops as soon as an iteration proves a win
+ * Times are counted from the start of the search, 0 meaning no limit.
+ */
+public class SearchLimits {
+
+    private int maxDepth = 64;
+    private long maxNodes = Long.MAX_VALUE;
+    private long softTimeMs = 0;
+    private long hardTimeMs = 0;
+    private boolean stopOnForcedWin = true;
+
+    public SearchLimits maxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    public SearchLimits maxNodes(long maxNodes) {
+        this.maxNodes = maxNodes;
+        return this;
+    }
+
+    public SearchLimits softTimeMs(long softTimeMs) {
+        this.softTimeMs = softTimeMs;
+        return this;
+    }
+
+    public SearchLimits hardTimeMs(long hardTimeMs) {
+        this.hardTimeMs = hardTimeMs;
+        return this;
+    }
+
+    public SearchLimits stopOnForcedWin(boolean stopOnForcedWin) {
+        this.stopOnForcedWin = stopOnForcedWin;
+        return this;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    public long getSoftTimeMs() {
+        return softTimeMs;
+    }
+
+    public long getHardTimeMs() {
+        return hardTimeMs;
+    }
+
+    public boolean stopsOnForcedWin() {
+        return stopOnForcedWin;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchLimits[depth=" + maxDepth + ", nodes=" + maxNodes + ", soft=" + softTimeMs
+                + "ms, hard=" + hardTimeMs + "ms, stopOnForcedWin=" + stopOnForcedWin + "]";
+    }
+}
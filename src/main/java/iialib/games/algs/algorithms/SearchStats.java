@@ -0,0 +1,145 @@
+package iialib.games.algs.algorithms;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statistics of one search, kept by the algorithm after bestMove (see AlphaBeta.getLastStats and
+ * MiniMax.getLastStats) so that they can be read from code instead of the console.
+ *
+ * Iterative deepening searches record the nodes of each iteration: the effective branching factor of
+ * a depth is then the ratio of its nodes to those of the previous depth. Fixed depth searches only
+ * know their total, whose depth-th root is used instead.
+ *
+ * Counters specific to an algorithm (quiescence nodes, pruned moves...) are given by name.
+ */
+public final class SearchStats {
+
+    private final String algorithm;
+    private final int depth;
+    private final long nodes;
+    private final long leaves;
+    private final long elapsedNanos;
+    private final long cutoffs;
+    private final long firstMoveCutoffs;
+    private final long tableProbes;
+    private final long tableHits;
+    private final long[] iterationNodes;
+    private final Map<String, Long> counters = new LinkedHashMap<>();
+
+    /**
+     * @param depth          depth of the last completed iteration (or of the fixed depth search)
+     * @param iterationNodes nodes of each iteration, indexed by depth (0 if unknown)
+     */
+    SearchStats(String algorithm, int depth, long nodes, long leaves, long elapsedNanos, long cutoffs,
+                long firstMoveCutoffs, long tableProbes, long tableHits, long[] iterationNodes) {
+        this.algorithm = algorithm;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.leaves = leaves;
+        this.elapsedNanos = elapsedNanos;
+        this.cutoffs = cutoffs;
+        this.firstMoveCutoffs = firstMoveCutoffs;
+        this.tableProbes = tableProbes;
+        this.tableHits = tableHits;
+        this.iterationNodes = iterationNodes;
+    }
+
+    /** Adds a counter specific to the algorithm (kept in insertion order)
+     */
+    SearchStats counter(String name, long value) {
+        counters.put(name, value);
+        return this;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /** Nodes visited, summed over the threads
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getLeaves() {
+        return leaves;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getElapsedMs() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    /** Nodes of the iteration to depth (main thread only), 0 if unknown
+     */
+    public long getIterationNodes(int depth) {
+        return depth >= 0 && depth < iterationNodes.length ? iterationNodes[depth] : 0;
+    }
+
+    /** Effective branching factor of depth: nodes of its iteration over those of the previous one,
+     * or the depth-th root of its nodes when the previous one is unknown
+     * @return the factor, NaN if the nodes of depth are unknown
+     */
+    public double getBranchingFactor(int depth) {
+        long n = getIterationNodes(depth);
+        if (n == 0 || depth == 0) return Double.NaN;
+        long previous = getIterationNodes(depth - 1);
+        return previous > 0 ? (double) n / previous : Math.pow(n, 1.0 / depth);
+    }
+
+    /** Share of the cutoffs given by the first move searched (a measure of the move ordering)
+     * @return the rate in [0, 1], NaN if there was no cutoff
+     */
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? Double.NaN : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    /** Share of the transposition table probes that found their position
+     * @return the rate in [0, 1], NaN without table
+     */
+    public double getTableHitRate() {
+        return tableProbes == 0 ? Double.NaN : (double) tableHits / tableProbes;
+    }
+
+    /** Counter specific to the algorithm, 0 if it does not keep it
+     */
+    public long getCounter(String name) {
+        return counters.getOrDefault(name, 0L);
+    }
+
+    public Map<String, Long> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(algorithm).append("[depth=").append(depth)
+                .append(", nodes=").append(nodes).append(", leaves=").append(leaves)
+                .append(", ").append(getElapsedMs()).append("ms, ").append(getNodesPerSecond()).append(" nodes/s");
+        double branchingFactor = getBranchingFactor(depth);
+        if (!Double.isNaN(branchingFactor)) sb.append(", ebf=").append(String.format("%.2f", branchingFactor));
+        if (cutoffs > 0) sb.append(", firstMoveCutoffs=").append(String.format("%.1f%%", 100 * getFirstMoveCutoffRate()));
+        if (tableProbes > 0) sb.append(", tableHits=").append(String.format("%.1f%%", 100 * getTableHitRate()));
+        for (Map.Entry<String, Long> c : counters.entrySet()) {
+            sb.append(", ").append(c.getKey()).append('=').append(c.getValue());
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,197 @@
+package iialib.games.algs.algorithms;
+
+import iialib.games.algs.IHeuristic;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size transposition table, indexed by the 64-bit position keys of IBoard.getHash().
+ *
+ * Entries are stored in two parallel long[] arrays (no object per entry): data packs the
+ * score, best move, remaining depth, bound type and search generation, and the key array holds
+ * key ^ data. A reader only accepts an entry when its two words XOR back to the probed key,
+ * so entries torn by concurrent writers are seen as misses: several search threads may share
+ * the table without any lock.
+ *
+ * The table is made of buckets of two entries: the first one keeps the deepest result
+ * (it is only replaced by a search at least as deep, or by the current search when it comes
+ * from an older one), the second one is always replaced.
+ */
+public final class TranspositionTable {
+
+    /** Bound types of a stored score
+     */
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    /** Move returned for entries without a best move
+     */
+    public static final int NO_MOVE = -1;
+
+    /** Scores beyond this bound are wins or losses, stored relative to the node (see scoreToTable)
+     */
+    static final int MATE_BOUND = IHeuristic.WIN_VALUE - 10000;
+
+    // data layout
+    // bits 0-31  : score
+    // bits 32-51 : best move (MOVE_MASK = no move)
+    // bits 52-59 : remaining depth
+    // bits 60-61 : bound type (0 = empty)
+    // bits 62-63 : search generation
+    private static final int MOVE_SHIFT = 32;
+    private static final long MOVE_MASK = 0xFFFFFL;
+    private static final int DEPTH_SHIFT = 52;
+    private static final int BOUND_SHIFT = 60;
+    private static final int GENERATION_SHIFT = 62;
+
+    private static final int BYTES_PER_ENTRY = 16;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+
+    private volatile int generation;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * @param sizeMb memory used by the table, in megabytes (rounded down to a power of two entries)
+     */
+    public TranspositionTable(int sizeMb) {
+        long entries = Math.max(2L, (long) sizeMb * 1024 * 1024 / BYTES_PER_ENTRY);
+        int buckets = Integer.highestOneBit((int) Math.min(entries / 2, 1 << 29));
+        this.keys = new long[2 * buckets];
+        this.data = new long[2 * buckets];
+        this.bucketMask = buckets - 1;
+    }
+
+    /** Number of entries of the table
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /** Starts a new search: entries of previous searches become replaceable, stats are reset
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 3;
+        probes.reset();
+        hits.reset();
+    }
+
+    /** Empties the table
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+    }
+
+    /** Looks a position up.
+     * @param key the position key
+     * @return the packed entry (decoded by score, move, depth and bound), 0 if absent
+     */
+    public long probe(long key) {
+        probes.increment();
+        int index = ((int) key & bucketMask) << 1;
+        for (int i = index; i < index + 2; i++) {
+            long d = data[i];
+            if ((keys[i] ^ d) == key && d != 0L) {
+                hits.increment();
+                return d;
+            }
+        }
+        return 0L;
+    }
+
+    /** Stores the result of a search.
+     * @param key   the position key
+     * @param depth remaining depth the position was searched to
+     * @param bound EXACT, LOWER (score is at least) or UPPER (score is at most)
+     * @param score the score, converted by scoreToTable
+     * @param move  best move code (at most 20 bits), or NO_MOVE
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        int gen = generation;
+        long d = (score & 0xFFFFFFFFL)
+                | ((move == NO_MOVE ? MOVE_MASK : move & MOVE_MASK) << MOVE_SHIFT)
+                | ((long) Math.min(depth, 255) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) gen << GENERATION_SHIFT);
+
+        int index = ((int) key & bucketMask) << 1;
+        long old = data[index];
+        boolean replaceDeep = old == 0L
+                || (keys[index] ^ old) == key
+                || generation(old) != gen
+                || depth >= depth(old);
+        int slot = replaceDeep ? index : index + 1;
+        data[slot] = d;
+        keys[slot] = key ^ d;
+    }
+
+    /** Fill level in permille, sampled on the first entries: entries written by the current search
+     */
+    public int fillPermille() {
+        int sample = Math.min(1000, data.length);
+        int gen = generation;
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long d = data[i];
+            if (d != 0L && generation(d) == gen) used++;
+        }
+        return used * 1000 / sample;
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    // --- entry decoding ---
+
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    public static int move(long entry) {
+        long m = (entry >>> MOVE_SHIFT) & MOVE_MASK;
+        return m == MOVE_MASK ? NO_MOVE : (int) m;
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 3;
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & 3;
+    }
+
+    // --- win / loss scores ---
+
+    /** Win and loss scores count the distance from the root (WIN_VALUE - depth): they are
+     * stored as distances from the node at ply, so that they stay valid at any other ply.
+     */
+    public static int scoreToTable(int score, int ply) {
+        if (score >= MATE_BOUND) return score + ply;
+        if (score <= -MATE_BOUND) return score - ply;
+        return score;
+    }
+
+    /** Inverse of scoreToTable for a node at ply
+     */
+    public static int scoreFromTable(int score, int ply) {
+        if (score >= MATE_BOUND) return score - ply;
+        if (score <= -MATE_BOUND) return score + ply;
+        return score;
+    }
+}
@@ -0,0 +1,290 @@
+package iialib.games.algs.algorithms;
+
+import iialib.games.algs.GameAlgorithm;
+import iialib.games.algs.IHeuristic;
+import iialib.games.model.IBoard;
+import iialib.games.model.IMove;
+import iialib.games.model.IRole;
+import iialib.games.model.Score;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parallel alpha-beta (negamax form) following the Young Brothers Wait concept, on a ForkJoinPool.
+ *
+ * At each node, the eldest child is searched first and alone; once its value is known, the
+ * younger siblings are forked as tasks that the pool's threads steal. A sibling takes its window
+ * from its parent when it starts, and raises its parent's alpha when it completes. When one of
+ * them reaches beta, the parent is marked as cut: the pending siblings are cancelled, and the
+ * running ones (with their whole subtrees) notice it and return at once.
+ *
+ * It only relies on play (each task works on its own copy of the board), so it works with any
+ * IBoard. Subtrees of at most SERIAL_DEPTH plies are searched serially by one task: smaller tasks
+ * would cost more than they save.
+ */
+public class YoungBrothersWait<Move extends IMove, Role extends IRole, Board extends IBoard<Move, Role, Board>>
+        implements GameAlgorithm<Move, Role, Board> {
+
+    /** Bound of all scores (a win at ply 0 is worth WIN_VALUE)
+     */
+    private static final int INFINITY = IHeuristic.WIN_VALUE + 1;
+
+    /** Subtrees with at most this remaining depth are searched by a single task
+     */
+    private static final int SERIAL_DEPTH = 2;
+
+    // Attributes
+    private final Role playerMaxRole;
+    private final Role playerMinRole;
+    private final IHeuristic<Board, Role> h;
+    private final int depthMax;
+    private final ForkJoinPool pool;
+
+    /** number of visited nodes, evaluated leaves and cancelled sibling tasks (for stats)
+     */
+    private final LongAdder nbNodes = new LongAdder();
+    private final LongAdder nbLeaves = new LongAdder();
+    private final LongAdder nbCancelled = new LongAdder();
+
+    private int score;
+
+    /** Statistics of the last bestMove (null before the first one)
+     */
+    private SearchStats lastStats;
+
+    /** Prints the stats of each bestMove on the console (off by default)
+     */
+    private boolean verbose;
+
+    public YoungBrothersWait(Role playerMaxRole, Role playerMinRole, IHeuristic<Board, Role> h, int depthMax) {
+        this(playerMaxRole, playerMinRole, h, depthMax, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool pool running the tasks (its parallelism sets the number of threads)
+     */
+    public YoungBrothersWait(Role playerMaxRole, Role playerMinRole, IHeuristic<Board, Role> h, int depthMax,
+                             ForkJoinPool pool) {
+        this.playerMaxRole = playerMaxRole;
+        this.playerMinRole = playerMinRole;
+        this.h = h;
+        this.depthMax = depthMax;
+        this.pool = pool;
+    }
+
+    @Override
+    public Move bestMove(Board board, Role playerRole) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        nbNodes.reset();
+        nbLeaves.reset();
+        nbCancelled.reset();
+        Node root = new Node(null, board, playerRole, depthMax, 0);
+        this.score = pool.invoke(root);
+
+        // A single iteration: the branching factor is the depthMax-th root of the nodes
+        long[] iterationNodes = new long[depthMax + 1];
+        iterationNodes[depthMax] = nbNodes.sum();
+        this.lastStats = new SearchStats("YoungBrothersWait", depthMax, nbNodes.sum(), nbLeaves.sum(),
+                System.nanoTime() - start, 0, 0, 0, 0, iterationNodes)
+                .counter("cancelled", nbCancelled.sum())
+                .counter("threads", pool.getParallelism());
+        event.end();
+        event.commit(lastStats, root.bestMove);
+        if (verbose) System.out.println(lastStats);
+        return root.bestMove;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /** Statistics of the last bestMove (null before the first one)
+     */
+    public SearchStats getLastStats() {
+        return lastStats;
+    }
+
+    /** Score of the last search, for the player to move at the root
+     */
+    public int getScore() {
+        return score;
+    }
+
+    public long getNbNodes() {
+        return nbNodes.sum();
+    }
+
+    private Role opponent(Role role) {
+        return role.equals(playerMaxRole) ? playerMinRole : playerMaxRole;
+    }
+
+    /** Value of a finished game for the player to move at ply
+     */
+    private int terminalScore(Board board, Role role, int ply) {
+        for (Score<Role> s : board.getScores()) {
+            if (!s.getRole().equals(role)) continue;
+            switch (s.getStatus()) {
+                case WIN:
+                    return IHeuristic.WIN_VALUE - ply;
+                case LOOSE:
+                    return -(IHeuristic.WIN_VALUE - ply);
+                default:
+                    return 0;
+            }
+        }
+        return h.eval(board, role);
+    }
+
+    /** Search of one node. Its value is only meaningful if valid is set once it completed.
+     */
+    private final class Node extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final Node parent;
+        private final Board board;
+        private final Role role;
+        private final int depth;
+        private final int ply;
+
+        /** Window: beta is set when the task starts, alpha is raised by the completed children
+         */
+        private final AtomicInteger alpha = new AtomicInteger(-INFINITY);
+        private int beta = INFINITY;
+
+        /** Set when a child reached beta: the other children are no longer needed
+         */
+        private volatile boolean cut;
+
+        /** Set when the node completed without being aborted
+         */
+        private volatile boolean valid;
+
+        /** Best move found (read at the root)
+         */
+        private Move bestMove;
+
+        Node(Node parent, Board board, Role role, int depth, int ply) {
+            this.parent = parent;
+            this.board = board;
+            this.role = role;
+            this.depth = depth;
+            this.ply = ply;
+        }
+
+        /** True if an ancestor was cut: this node's value is not needed any more
+         */
+        private boolean aborted() {
+            for (Node n = parent; n != null; n = n.parent) {
+                if (n.cut) return true;
+            }
+            return false;
+        }
+
+        /** Records the value of a completed child (from this node's point of view)
+         */
+        private void childDone(int value) {
+            alpha.accumulateAndGet(value, Math::max);
+            if (value >= beta) cut = true;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (parent != null) {
+                // The window of the parent as it is now, from this node's point of view
+                alpha.set(-parent.beta);
+                beta = -parent.alpha.get();
+            }
+            int value = search();
+            if (!aborted()) {
+                valid = true;
+                if (parent != null) parent.childDone(-value);
+            }
+            return value;
+        }
+
+        private int search() {
+            nbNodes.increment();
+            if (aborted()) return 0;
+            if (board.isGameOver()) return terminalScore(board, role, ply);
+            if (depth <= 0) {
+                nbLeaves.increment();
+                return h.eval(board, role);
+            }
+            if (depth <= SERIAL_DEPTH && parent != null) {
+                return serial(board, role, depth, ply, alpha.get(), beta);
+            }
+
+            List<Move> moves = board.possibleMoves(role);
+            if (moves.isEmpty()) return h.eval(board, role);
+            Role next = opponent(role);
+
+            // The eldest brother alone: its value gives the window of the others
+            Node eldest = new Node(this, board.play(moves.get(0), role), next, depth - 1, ply + 1);
+            int best = -eldest.compute();
+            if (!eldest.valid) return 0;
+            Move bestMove = moves.get(0);
+
+            // Then the young brothers, in parallel
+            List<Node> brothers = new ArrayList<>(moves.size() - 1);
+            if (!cut) {
+                for (int i = 1; i < moves.size(); i++) {
+                    Node brother = new Node(this, board.play(moves.get(i), role), next, depth - 1, ply + 1);
+                    brothers.add(brother);
+                    brother.fork();
+                }
+            }
+            for (int i = 0; i < brothers.size(); i++) {
+                if (cut) {
+                    // The brothers not started yet are dropped
+                    for (int j = i; j < brothers.size(); j++) {
+                        if (brothers.get(j).cancel(false)) nbCancelled.increment();
+                    }
+                }
+                Node brother = brothers.get(i);
+                int value;
+                try {
+                    value = -brother.join();
+                } catch (CancellationException e) {
+                    continue;
+                }
+                if (brother.valid && value > best) {
+                    best = value;
+                    bestMove = moves.get(i + 1);
+                }
+            }
+            this.bestMove = bestMove;
+            return best;
+        }
+
+        /** Plain negamax on copies of the board, stopped as soon as an ancestor task is cut
+         */
+        private int serial(Board b, Role r, int d, int p, int a, int bt) {
+            if (b.isGameOver()) return terminalScore(b, r, p);
+            if (d <= 0) {
+                nbLeaves.increment();
+                return h.eval(b, r);
+            }
+            if (aborted()) return 0;
+            Role next = opponent(r);
+            int best = -INFINITY;
+            for (Move m : b.possibleMoves(r)) {
+                nbNodes.increment();
+                int value = -serial(b.play(m, r), next, d - 1, p + 1, -bt, -a);
+                if (value > best) {
+                    best = value;
+                    if (value > a) a = value;
+                    if (a >= bt) break;
+                }
+            }
+            return best == -INFINITY ? h.eval(b, r) : best;
+        }
+    }
+}
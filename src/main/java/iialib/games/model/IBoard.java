@@ -49,5 +49,132 @@ public interface IBoard<Move extends IMove, Role extends IRole, Board extends IB
 	 * @return
 	 */	
 	ArrayList<Score<Role>> getScores();
+
+	/**
+	 * tells whether the board implements the optional in-place operations
+	 * (doMove / undoMove and the int-encoded move generation).
+	 * Algorithms fall back to play (which copies the board) when it returns false.
+	 * @return yes if the optional operations are supported
+	 */
+	default boolean supportsUndo() {
+		return false;
+	}
+
+	/**
+	 * (optional operation, available when supportsUndo() is true) writes the possible moves
+	 * of a player having the playerRole into buffer, encoded as ints, without allocating.
+	 * @param playerRole
+	 * @param buffer caller-owned array of at least maxPossibleMoves() cells
+	 * @return the number of moves written
+	 */
+	default int possibleMoves(Role playerRole, int[] buffer) {
+		throw new UnsupportedOperationException("possibleMoves(Role, int[])");
+	}
+
+	/**
+	 * (optional operation) upper bound on the number of moves written by possibleMoves(Role, int[])
+	 * @return the size buffers must have
+	 */
+	default int maxPossibleMoves() {
+		throw new UnsupportedOperationException("maxPossibleMoves");
+	}
+
+	/**
+	 * (optional operation) returns the move encoded by code
+	 * @param code a move written by possibleMoves(Role, int[])
+	 * @return the corresponding move (should not allocate)
+	 */
+	default Move decodeMove(int code) {
+		throw new UnsupportedOperationException("decodeMove");
+	}
+
+	/**
+	 * (optional operation) value of the piece captured by an int-encoded move, used to search
+	 * captures first (the most valuable first).
+	 * @param code a move written by possibleMoves(Role, int[])
+	 * @return the value of the captured piece, 0 if the move captures nothing
+	 */
+	default int captureValue(int code) {
+		return 0;
+	}
+
+	/**
+	 * (optional operation, available when supportsUndo() is true) writes the capturing moves
+	 * (captureValue() > 0) of a player having the playerRole into buffer, for the quiescence search.
+	 * @param playerRole
+	 * @param buffer caller-owned array of at least maxPossibleMoves() cells
+	 * @return the number of moves written (0 by default: no quiescence search)
+	 */
+	default int captureMoves(Role playerRole, int[] buffer) {
+		return 0;
+	}
+
+	/**
+	 * (optional operation) tells whether the player having the playerRole is under direct threat:
+	 * its opponent could capture a decisive piece if it were to move. Searches extend such positions.
+	 * @param playerRole
+	 * @return yes if threatened (false by default: no extension)
+	 */
+	default boolean isThreatened(Role playerRole) {
+		return false;
+	}
+
+	/**
+	 * (optional operation, available when supportsUndo() is true) code of a "pass" move, letting the
+	 * opponent move twice in a row: decoded by decodeMove and played by doMove, for null-move pruning.
+	 * @return the code, or -1 if the game has no such move (the default)
+	 */
+	default int nullMove() {
+		return -1;
+	}
+
+	/** (optional operation) plays move on this board itself, played by a player having the playerRole
+	 * 
+	 * @param move
+	 * @param playerRole
+	 * @return an undo record, to be given back to undoMove
+	 */
+	default long doMove(Move move, Role playerRole) {
+		throw new UnsupportedOperationException("doMove");
+	}
+
+	/** (optional operation) takes back a move previously played with doMove.
+	 * Moves must be undone in the reverse order they were played.
+	 * 
+	 * @param move the move given to doMove
+	 * @param playerRole the role given to doMove
+	 * @param undo the record returned by doMove
+	 */
+	default void undoMove(Move move, Role playerRole, long undo) {
+		throw new UnsupportedOperationException("undoMove");
+	}
+
+	/**
+	 * (optional operation, available when supportsUndo() is true) returns an independent copy
+	 * of this board, so that another thread can search it with doMove / undoMove.
+	 * @return the copy
+	 */
+	default Board copy() {
+		throw new UnsupportedOperationException("copy");
+	}
+
+	/**
+	 * tells whether the board implements getHash().
+	 * Algorithms only use a transposition table on such boards.
+	 * @return yes if getHash() is supported
+	 */
+	default boolean supportsHash() {
+		return false;
+	}
+
+	/**
+	 * (optional operation) 64-bit key of the position: equal positions (pieces, player to move
+	 * and any other state the legal moves depend on) must have equal keys, and different
+	 * positions should have different keys with high probability (e.g. Zobrist hashing).
+	 * @return the key of the position
+	 */
+	default long getHash() {
+		throw new UnsupportedOperationException("getHash");
+	}
 	
 }
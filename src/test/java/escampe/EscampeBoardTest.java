@@ -0,0 +1,117 @@
+package escampe;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+// Invariants du plateau le long de parties aléatoires (tirages reproductibles) :
+// - doMove puis undoMove rend le plateau et la clé de Zobrist d'avant le coup
+// - la clé tenue à jour coup par coup est celle recalculée depuis les pièces (setPosition)
+// - isValidMove accepte exactement les coups de possibleMoves
+// - la mobilité comptée sans générer les coups est le nombre de déplacements générés
+public class EscampeBoardTest {
+
+    private static final int NB_PARTIES = 40;
+    private static final int DEMI_COUPS_MAX = 120;
+
+    private interface Verification {
+        void verifier(EscampeBoard board, EscampeRole role);
+    }
+
+    // Joue NB_PARTIES parties aléatoires depuis le départ et vérifie chaque position rencontrée
+    private static void parcourir(Verification verification) {
+        for (int graine = 0; graine < NB_PARTIES; graine++) {
+            Random hasard = new Random(graine);
+            EscampeBoard board = PerftTest.depart();
+            EscampeRole role = EscampeRole.BLANC;
+            for (int ply = 0; ply < DEMI_COUPS_MAX && !board.isGameOver(); ply++) {
+                verification.verifier(board, role);
+                ArrayList<EscampeMove> coups = board.possibleMoves(role);
+                board.doMove(coups.get(hasard.nextInt(coups.size())), role);
+                role = role.opponent();
+            }
+        }
+    }
+
+    @Test
+    public void doMovePuisUndoMoveRendLePlateau() {
+        parcourir((board, role) -> {
+            EscampeBoard avant = new EscampeBoard(board);
+            for (EscampeMove coup : board.possibleMoves(role)) {
+                long undo = board.doMove(coup, role);
+                assertEquals(coup + " joué en place et sur une copie", avant.play(coup, role), board);
+                board.undoMove(coup, role, undo);
+                assertEquals(coup + " annulé", avant, board);
+                assertEquals(coup + " annulé : clé", avant.getHash(), board.getHash());
+            }
+        });
+    }
+
+    @Test
+    public void cleIncrementaleEgaleCleRecalculee() {
+        parcourir((board, role) -> {
+            EscampeBoard recalcule = new EscampeBoard();
+            recalcule.setPosition(board.getPaladins(true), board.getLicorne(true),
+                    board.getPaladins(false), board.getLicorne(false),
+                    role == EscampeRole.BLANC, board.getLisereCourant());
+            assertEquals(recalcule.getHash(), board.getHash());
+            assertEquals(recalcule, board);
+        });
+    }
+
+    @Test
+    public void isValidMoveAccepteExactementLesCoupsPossibles() {
+        parcourir((board, role) -> {
+            Set<Integer> possibles = new HashSet<>();
+            for (EscampeMove coup : board.possibleMoves(role)) possibles.add(coup.code);
+            for (int from = 0; from < 36; from++) {
+                for (int to = 0; to < 36; to++) {
+                    EscampeMove coup = EscampeMove.of(EscampeMove.code(from, to));
+                    assertEquals(coup.toString(), possibles.contains(coup.code), board.isValidMove(coup, role));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void mobiliteEgaleAuNombreDeDeplacements() {
+        int[] coups = new int[EscampeBoard.MAX_COUPS];
+        int[] parLisere = new int[4];
+        parcourir((board, role) -> {
+            for (EscampeRole joueur : new EscampeRole[]{role, role.opponent()}) {
+                // La génération applique le liseré courant ; un joueur bloqué n'a que la passe
+                int n = board.possibleMoves(joueur, coups);
+                if (n == 1 && EscampeMove.estPasse(coups[0])) n = 0;
+                assertEquals(n, board.mobility(joueur, board.getLisereCourant()));
+
+                assertEquals(board.mobility(joueur, 0), board.mobilityByLisere(joueur, parLisere));
+                for (int lisere = 1; lisere <= 3; lisere++) {
+                    assertEquals(board.mobility(joueur, lisere), parLisere[lisere]);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void versionsChainesEtCodeesConcordent() {
+        parcourir((board, role) -> {
+            String joueur = role == EscampeRole.BLANC ? "blanc" : "noir";
+            String[] chaines = board.possiblesMoves(joueur);
+            ArrayList<String> codes = new ArrayList<>();
+            for (EscampeMove coup : board.possibleMoves(role)) codes.add(coup.toString());
+            Arrays.sort(chaines);
+            codes.sort(null);
+            // Un joueur bloqué n'a aucun coup en chaînes, et la seule passe en coups codés
+            assertEquals(codes, chaines.length == 0 ? Arrays.asList("E") : Arrays.asList(chaines));
+            for (String coup : chaines) {
+                assertEquals(coup, true, board.isValidMove(coup, joueur));
+            }
+        });
+    }
+}
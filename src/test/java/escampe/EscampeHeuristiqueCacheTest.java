@@ -0,0 +1,91 @@
+package escampe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import iialib.games.algs.IHeuristic;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+// Le cache rend toujours la valeur de l'heuristique : la clé distingue le rôle évalué, le joueur au
+// trait et le liseré imposé, et l'heuristique n'est appelée qu'une fois par position en cache.
+public class EscampeHeuristiqueCacheTest {
+
+    // Heuristique qui compte ses appels
+    private static final class Comptee implements IHeuristic<EscampeBoard, EscampeRole> {
+        private final EscampeHeuristique heuristique = new EscampeHeuristique();
+        private int appels;
+
+        @Override
+        public int eval(EscampeBoard board, EscampeRole role) {
+            appels++;
+            return heuristique.eval(board, role);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tailleEnPuissanceDeDeux() {
+        new EscampeHeuristiqueCache(new EscampeHeuristique(), 1000);
+    }
+
+    @Test
+    public void memesValeursQueLHeuristique() {
+        EscampeHeuristique heuristique = new EscampeHeuristique();
+        // Petit cache : des positions se chassent les unes les autres
+        EscampeHeuristiqueCache cache = new EscampeHeuristiqueCache(heuristique, 64);
+        Random hasard = new Random(2);
+        for (int partie = 0; partie < 20; partie++) {
+            EscampeBoard board = PerftTest.depart();
+            EscampeRole role = EscampeRole.BLANC;
+            for (int ply = 0; ply < 80 && !board.isGameOver(); ply++) {
+                for (int fois = 0; fois < 2; fois++) {
+                    assertEquals(heuristique.eval(board, EscampeRole.BLANC), cache.eval(board, EscampeRole.BLANC));
+                    assertEquals(heuristique.eval(board, EscampeRole.NOIR), cache.eval(board, EscampeRole.NOIR));
+                }
+                ArrayList<EscampeMove> coups = board.possibleMoves(role);
+                board.doMove(coups.get(hasard.nextInt(coups.size())), role);
+                role = role.opponent();
+            }
+        }
+    }
+
+    @Test
+    public void uneSeuleEvaluationParPosition() {
+        Comptee heuristique = new Comptee();
+        EscampeHeuristiqueCache cache = new EscampeHeuristiqueCache(heuristique, 1 << 10);
+        EscampeBoard board = PerftTest.milieu();
+
+        cache.eval(board, EscampeRole.BLANC);
+        cache.eval(board, EscampeRole.BLANC);
+        cache.eval(new EscampeBoard(board), EscampeRole.BLANC);
+        assertEquals(1, heuristique.appels);
+        assertEquals(2, cache.getSucces());
+        assertEquals(1, cache.getEchecs());
+
+        // L'autre rôle est une autre entrée
+        cache.eval(board, EscampeRole.NOIR);
+        assertEquals(2, heuristique.appels);
+
+        cache.vider();
+        assertEquals(0, cache.getSucces());
+        cache.eval(board, EscampeRole.BLANC);
+        assertEquals(3, heuristique.appels);
+    }
+
+    @Test
+    public void leLisereImposeChangeLaCle() {
+        Comptee heuristique = new Comptee();
+        EscampeHeuristiqueCache cache = new EscampeHeuristiqueCache(heuristique, 1 << 10);
+        EscampeBoard board = PerftTest.milieu();
+        EscampeBoard sansLisere = new EscampeBoard(board);
+        sansLisere.setLisereCourant(0);
+        assertNotEquals(0, board.getLisereCourant());
+
+        cache.eval(board, EscampeRole.BLANC);
+        cache.eval(sansLisere, EscampeRole.BLANC);
+        assertEquals(2, heuristique.appels);
+    }
+}
@@ -0,0 +1,118 @@
+package escampe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+// Codage des entrées du livre d'ouvertures, et lecture d'un petit livre écrit au format de
+// EscampeOuverturesGenerateur.ecrire.
+public class EscampeOuverturesTest {
+
+    @Rule
+    public final TemporaryFolder dossier = new TemporaryFolder();
+
+    @Test
+    public void deplacementsEtPasseFontLAllerRetour() {
+        for (int from = 0; from < 36; from++) {
+            for (int to = 0; to < 36; to++) {
+                EscampeMove coup = EscampeMove.of(EscampeMove.code(from, to));
+                long valeur = EscampeOuvertures.encoder(coup, from + 1);
+                assertSame(coup, EscampeOuvertures.decoder(valeur));
+                assertEquals(from + 1, EscampeOuvertures.poids(valeur));
+            }
+        }
+        EscampeMove passe = EscampeMove.fromString("E");
+        long valeur = EscampeOuvertures.encoder(passe, EscampeOuvertures.POIDS_MAX);
+        assertSame(passe, EscampeOuvertures.decoder(valeur));
+        assertEquals(EscampeOuvertures.POIDS_MAX, EscampeOuvertures.poids(valeur));
+    }
+
+    @Test
+    public void placementsFontLAllerRetour() {
+        for (String placement : new String[]{PerftTest.PLACEMENT_NOIR, PerftTest.PLACEMENT_BLANC, "F1/A1/B1/C1/D1/E1"}) {
+            EscampeMove coup = EscampeMove.fromString(placement);
+            EscampeMove decode = EscampeOuvertures.decoder(EscampeOuvertures.encoder(coup, 7));
+            assertEquals(coup.code, decode.code);
+            assertEquals(coup.getPaladins(), decode.getPaladins());
+            assertEquals(coup.toString(), decode.toString());
+        }
+    }
+
+    @Test
+    public void livreEcritPuisRelu() throws IOException {
+        EscampeBoard vide = new EscampeBoard();
+        EscampeBoard depart = PerftTest.depart();
+        EscampeMove placement = EscampeMove.fromString(PerftTest.PLACEMENT_NOIR);
+        EscampeMove frequent = EscampeMove.fromString("F2-E3");
+        EscampeMove rare = EscampeMove.fromString("A1-A2");
+
+        long[][] entrees = {
+                {vide.getHash(), EscampeOuvertures.encoder(placement, 1)},
+                {depart.getHash(), EscampeOuvertures.encoder(frequent, 3)},
+                {depart.getHash(), EscampeOuvertures.encoder(rare, 1)},
+        };
+        Arrays.sort(entrees, (a, b) -> Long.compare(a[0], b[0]));
+        EscampeOuvertures livre = EscampeOuvertures.ouvrir(ecrire(entrees).toPath());
+        assertEquals(3, livre.getNbEntrees());
+
+        Random hasard = new Random(11);
+        assertEquals(placement.toString(), livre.coup(vide, EscampeRole.NOIR, hasard).toString());
+
+        // Tirage selon les poids : environ 3 fois sur 4 le coup fréquent
+        int nbFrequent = 0;
+        for (int n = 0; n < 4000; n++) {
+            EscampeMove coup = livre.coup(depart, EscampeRole.BLANC, hasard);
+            assertTrue(coup == frequent || coup == rare);
+            if (coup == frequent) nbFrequent++;
+        }
+        assertTrue(nbFrequent > 2800 && nbFrequent < 3200);
+
+        // Position absente du livre
+        assertNull(livre.coup(PerftTest.milieu(), EscampeRole.BLANC, hasard));
+    }
+
+    @Test
+    public void coupIllegalDuLivreIgnore() throws IOException {
+        // Comme une collision de hash : le coup du livre n'est pas jouable dans la position
+        EscampeBoard depart = PerftTest.depart();
+        long[][] entrees = {{depart.getHash(), EscampeOuvertures.encoder(EscampeMove.fromString("A6-A5"), 1)}};
+        EscampeOuvertures livre = EscampeOuvertures.ouvrir(ecrire(entrees).toPath());
+        assertNull(livre.coup(depart, EscampeRole.BLANC, new Random(1)));
+    }
+
+    @Test(expected = IOException.class)
+    public void fichierQuiNEstPasUnLivre() throws IOException {
+        File fichier = dossier.newFile();
+        try (FileOutputStream out = new FileOutputStream(fichier)) {
+            out.write(new byte[EscampeOuvertures.TAILLE_ENTETE]);
+        }
+        EscampeOuvertures.ouvrir(fichier.toPath());
+    }
+
+    // Écrit un livre (entrées déjà triées par clé), comme EscampeOuverturesGenerateur.ecrire
+    private File ecrire(long[][] entrees) throws IOException {
+        File fichier = dossier.newFile();
+        byte[] entete = new byte[EscampeOuvertures.TAILLE_ENTETE];
+        EscampeOuvertures.ecrireEntete(entete, entrees.length);
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(fichier))) {
+            out.write(entete);
+            for (long[] entree : entrees) {
+                out.writeLong(entree[0]);
+                out.writeLong(entree[1]);
+            }
+        }
+        return fichier;
+    }
+}
@@ -0,0 +1,129 @@
+package escampe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import iialib.games.algs.IEndgameTablebase;
+
+import java.io.File;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+// Indices de la table de finales (indice et son inverse position), et valeurs d'une table à 3 pièces
+// générée pour l'occasion : elles doivent suivre la récurrence de l'analyse rétrograde.
+public class EscampeTablebaseTest {
+
+    @ClassRule
+    public static final TemporaryFolder DOSSIER = new TemporaryFolder();
+
+    private static EscampeTablebase table3;
+
+    @BeforeClass
+    public static void genererTable3() throws Exception {
+        File fichier = DOSSIER.newFile("finales3.bin");
+        EscampeTablebaseGenerateur generateur = new EscampeTablebaseGenerateur(3, 2);
+        generateur.generer();
+        generateur.ecrire(fichier.getPath());
+        table3 = EscampeTablebase.ouvrir(fichier.toPath());
+    }
+
+    @Test
+    public void tousLesIndicesA3PiecesFontLAllerRetour() {
+        long[] debuts = EscampeTablebase.debutsMateriels(3);
+        EscampeBoard board = new EscampeBoard();
+        for (long i = 0; i < EscampeTablebase.taille(3); i++) {
+            boolean traitBlanc = EscampeTablebase.position(i, debuts, board);
+            assertEquals(i, EscampeTablebase.indice(board, traitBlanc, 3, debuts));
+        }
+    }
+
+    @Test
+    public void indicesA5PiecesFontLAllerRetour() {
+        long[] debuts = EscampeTablebase.debutsMateriels(EscampeTablebase.K_MAX);
+        long taille = EscampeTablebase.taille(EscampeTablebase.K_MAX);
+        EscampeBoard board = new EscampeBoard();
+        Random hasard = new Random(5);
+        for (int n = 0; n < 100_000; n++) {
+            long i = (long) (hasard.nextDouble() * taille);
+            boolean traitBlanc = EscampeTablebase.position(i, debuts, board);
+            assertEquals(i, EscampeTablebase.indice(board, traitBlanc, EscampeTablebase.K_MAX, debuts));
+        }
+    }
+
+    @Test
+    public void rangEtCasesSontInverses() {
+        Random hasard = new Random(3);
+        for (int n = 0; n < 10_000; n++) {
+            long occupees = (1L << hasard.nextInt(36)) | (1L << hasard.nextInt(36));
+            int nb = hasard.nextInt(4);
+            long rang = (long) (hasard.nextDouble() * EscampeTablebase.binomial(36 - Long.bitCount(occupees), nb));
+            long cases = EscampeTablebase.cases(rang, nb, occupees);
+            assertEquals(nb, Long.bitCount(cases));
+            assertEquals(0L, cases & occupees);
+            assertEquals(rang, EscampeTablebase.rang(cases, occupees));
+        }
+    }
+
+    @Test
+    public void horsDeLaTable() {
+        long[] debuts = EscampeTablebase.debutsMateriels(3);
+        assertEquals(-1, EscampeTablebase.indice(PerftTest.depart(), true, 3, debuts));
+        assertEquals(IEndgameTablebase.UNKNOWN, table3.probe(PerftTest.depart(), EscampeRole.BLANC));
+    }
+
+    @Test
+    public void decodageDesOctets() {
+        assertEquals(0, EscampeTablebase.decoder(0));
+        assertEquals(1, EscampeTablebase.decoder(1));
+        assertEquals(-2, EscampeTablebase.decoder(2));
+        assertEquals(255, EscampeTablebase.decoder(255));
+    }
+
+    // Gagnée en d : un coup mène à une position perdue en d - 1 (d = 1 : une prise de licorne) ;
+    // perdue en d : tous les coups mènent à une position gagnée en au plus d - 1, un en d - 1 exactement ;
+    // nulle : aucun coup ne mène à une position perdue, et un coup mène à une nulle
+    @Test
+    public void valeursSuiventLaRecurrence() {
+        long[] debuts = EscampeTablebase.debutsMateriels(3);
+        EscampeBoard board = new EscampeBoard();
+        Random hasard = new Random(7);
+        int[] coups = new int[board.maxPossibleMoves()];
+        for (int n = 0; n < 20_000; n++) {
+            boolean traitBlanc = EscampeTablebase.position(hasard.nextInt((int) EscampeTablebase.taille(3)), debuts, board);
+            if (board.isGameOver()) continue;
+            EscampeRole role = traitBlanc ? EscampeRole.BLANC : EscampeRole.NOIR;
+            int valeur = table3.probe(board, role);
+
+            boolean prise = false;
+            int meilleurePerte = Integer.MAX_VALUE;
+            int pireGain = 0;
+            boolean nulle = false;
+            int nb = board.possibleMoves(role, coups);
+            for (int i = 0; i < nb; i++) {
+                if (board.captureValue(coups[i]) > 0) {
+                    prise = true;
+                    continue;
+                }
+                int suite = table3.probe(board.play(board.decodeMove(coups[i]), role), role.opponent());
+                if (suite < 0) meilleurePerte = Math.min(meilleurePerte, -suite);
+                else if (suite > 0) pireGain = Math.max(pireGain, suite);
+                else nulle = true;
+            }
+
+            if (prise) {
+                assertEquals(1, valeur);
+            } else if (meilleurePerte != Integer.MAX_VALUE) {
+                assertEquals(meilleurePerte + 1, valeur);
+            } else if (nulle) {
+                assertEquals(0, valeur);
+            } else {
+                assertTrue(pireGain > 0);
+                assertEquals(-(pireGain + 1), valeur);
+            }
+        }
+    }
+}
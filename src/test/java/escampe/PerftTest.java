@@ -0,0 +1,71 @@
+package escampe;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+// Nombres de feuilles de référence, obtenus avec la génération de coups d'origine (chaînes, récursive)
+// par possiblesMoves/play : toute optimisation de la génération de coups doit les laisser inchangés.
+public class PerftTest {
+
+    // Placements de départ : Noir en haut, Blanc en bas ; Blanc joue le premier déplacement
+    static final String PLACEMENT_NOIR = "C6/A6/B5/D5/E6/F5";
+    static final String PLACEMENT_BLANC = "C1/A1/B2/D2/E1/F2";
+
+    // Dix demi-coups depuis le départ (avec une passe) : Blanc au trait, liseré imposé
+    static final String[] MILIEU = {"A1-B1", "F5-F3", "E", "F3-F4", "D2-C2", "A6-B4", "E1-F1", "C6-C4", "C2-E1", "B4-A4"};
+
+    static EscampeBoard depart() {
+        EscampeBoard board = new EscampeBoard();
+        board.play(PLACEMENT_NOIR, "noir");
+        board.play(PLACEMENT_BLANC, "blanc");
+        return board;
+    }
+
+    static EscampeBoard milieu() {
+        EscampeBoard board = depart();
+        String joueur = "blanc";
+        for (String coup : MILIEU) {
+            board.play(coup, joueur);
+            joueur = joueur.equals("blanc") ? "noir" : "blanc";
+        }
+        return board;
+    }
+
+    @Test
+    public void depuisLeDepart() {
+        long[] attendus = {16, 182, 1291, 12668, 64972};
+        EscampeBoard board = depart();
+        for (int d = 1; d <= attendus.length; d++) {
+            assertEquals("profondeur " + d, attendus[d - 1], new Perft(d).perft(board, EscampeRole.BLANC, d));
+        }
+    }
+
+    @Test
+    public void depuisUnMilieuDePartie() {
+        long[] attendus = {5, 43, 178, 2550, 10914};
+        EscampeBoard board = milieu();
+        for (int d = 1; d <= attendus.length; d++) {
+            assertEquals("profondeur " + d, attendus[d - 1], new Perft(d).perft(board, EscampeRole.BLANC, d));
+        }
+    }
+
+    @Test
+    public void perftRestaureLePlateau() {
+        EscampeBoard board = milieu();
+        EscampeBoard avant = new EscampeBoard(board);
+        new Perft(4).perft(board, EscampeRole.BLANC, 4);
+        assertEquals(avant, board);
+    }
+
+    @Test
+    public void divideSommeAuPerft() {
+        EscampeBoard board = depart();
+        EscampeMove[] coups = Perft.coupsRacine(board, EscampeRole.BLANC);
+        for (boolean parallele : new boolean[]{false, true}) {
+            long total = 0;
+            for (long n : Perft.divide(board, EscampeRole.BLANC, 4, coups, parallele)) total += n;
+            assertEquals(parallele ? "parallèle" : "séquentiel", 12668, total);
+        }
+    }
+}
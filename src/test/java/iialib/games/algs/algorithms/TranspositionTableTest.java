@@ -0,0 +1,110 @@
+package iialib.games.algs.algorithms;
+
+import static org.junit.Assert.assertEquals;
+
+import iialib.games.algs.IHeuristic;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Round trips of the packed entries, and the replacement scheme of the two-entry buckets.
+ */
+public class TranspositionTableTest {
+
+    /** Keys that only differ above bit 32 fall in the same bucket
+     */
+    private static long sameBucket(long key, int i) {
+        return key ^ ((long) i << 40);
+    }
+
+    @Test
+    public void storedEntriesDecodeBack() {
+        TranspositionTable table = new TranspositionTable(1);
+        Random random = new Random(1);
+        int[] bounds = {TranspositionTable.EXACT, TranspositionTable.LOWER, TranspositionTable.UPPER};
+        for (int i = 0; i < 1000; i++) {
+            table.clear();
+            long key = random.nextLong();
+            int depth = random.nextInt(256);
+            int bound = bounds[random.nextInt(3)];
+            int score = random.nextInt(2 * IHeuristic.WIN_VALUE + 1) - IHeuristic.WIN_VALUE;
+            int move = random.nextInt(4) == 0 ? TranspositionTable.NO_MOVE : random.nextInt((1 << 20) - 1);
+            table.store(key, depth, bound, score, move);
+
+            long entry = table.probe(key);
+            assertEquals(score, TranspositionTable.score(entry));
+            assertEquals(move, TranspositionTable.move(entry));
+            assertEquals(depth, TranspositionTable.depth(entry));
+            assertEquals(bound, TranspositionTable.bound(entry));
+        }
+    }
+
+    @Test
+    public void depthIsCappedAt255() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(42L, 1000, TranspositionTable.EXACT, 0, 0);
+        assertEquals(255, TranspositionTable.depth(table.probe(42L)));
+    }
+
+    @Test
+    public void unknownKeysMiss() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(42L, 3, TranspositionTable.EXACT, 7, 1);
+        assertEquals(0L, table.probe(43L));
+        assertEquals(0L, table.probe(sameBucket(42L, 1)));
+        table.clear();
+        assertEquals(0L, table.probe(42L));
+    }
+
+    @Test
+    public void deepEntrySurvivesShallowerOnes() {
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = 5L;
+        table.store(deep, 8, TranspositionTable.EXACT, 1, 1);
+        table.store(sameBucket(deep, 1), 2, TranspositionTable.EXACT, 2, 2);
+        table.store(sameBucket(deep, 2), 1, TranspositionTable.EXACT, 3, 3);
+
+        assertEquals(8, TranspositionTable.depth(table.probe(deep)));
+        assertEquals(0L, table.probe(sameBucket(deep, 1)));
+        assertEquals(3, TranspositionTable.score(table.probe(sameBucket(deep, 2))));
+    }
+
+    @Test
+    public void newSearchMakesOldEntriesReplaceable() {
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = 5L;
+        table.store(deep, 8, TranspositionTable.EXACT, 1, 1);
+        table.newSearch();
+        table.store(sameBucket(deep, 1), 1, TranspositionTable.EXACT, 2, 2);
+
+        assertEquals(0L, table.probe(deep));
+        assertEquals(1, TranspositionTable.depth(table.probe(sameBucket(deep, 1))));
+    }
+
+    @Test
+    public void probesAndHitsAreCountedPerSearch() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(42L, 3, TranspositionTable.EXACT, 7, 1);
+        table.probe(42L);
+        table.probe(43L);
+        assertEquals(2, table.getProbes());
+        assertEquals(1, table.getHits());
+        table.newSearch();
+        assertEquals(0, table.getProbes());
+        assertEquals(0, table.getHits());
+    }
+
+    @Test
+    public void winScoresAreStoredRelativeToTheNode() {
+        int win = IHeuristic.WIN_VALUE - 7;
+        for (int ply = 0; ply < 50; ply++) {
+            for (int score : new int[]{win, -win, 0, 123, -123}) {
+                assertEquals(score, TranspositionTable.scoreFromTable(TranspositionTable.scoreToTable(score, ply), ply));
+            }
+        }
+        // A win in 7 plies from the root, seen at ply 3, is a win in 4 from there
+        assertEquals(IHeuristic.WIN_VALUE - 4, TranspositionTable.scoreToTable(win, 3));
+    }
+}